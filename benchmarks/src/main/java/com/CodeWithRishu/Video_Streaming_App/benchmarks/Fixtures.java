@@ -0,0 +1,83 @@
+package com.CodeWithRishu.Video_Streaming_App.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Generated stand-ins for real media, shaped like the files under {@code videos_hsl/}: MPEG-TS
+ * packets of 188 bytes starting with the 0x47 sync byte and filled with seeded noise, so every run
+ * reads the same incompressible bytes without checking video files into the repository.
+ */
+final class Fixtures {
+
+    static final int TS_PACKET = 188;
+    static final String VIDEO_ID = "00000000-0000-0000-0000-00000000b3c4";
+
+    private Fixtures() {
+    }
+
+    /** Writes {@code size} bytes of pseudo transport stream, rounded down to whole packets. */
+    static Path transportStream(Path file, long size, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] packet = new byte[TS_PACKET];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written + TS_PACKET <= size; written += TS_PACKET) {
+                random.nextBytes(packet);
+                packet[0] = 0x47;
+                out.write(packet);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Writes the HLS output of one video as {@code VideoProcessingService} lays it out: a master
+     * playlist and one directory per rendition holding its media playlist and segments.
+     */
+    static Path hlsOutput(Path hlsRoot, String[] renditions, int segments, long segmentSize, int segmentSeconds) throws IOException {
+        Path videoDir = hlsRoot.resolve(VIDEO_ID);
+        Files.createDirectories(videoDir);
+        StringBuilder master = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+        for (int r = 0; r < renditions.length; r++) {
+            Path dir = Files.createDirectories(videoDir.resolve(renditions[r]));
+            StringBuilder media = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n#EXT-X-PLAYLIST-TYPE:VOD\n")
+                    .append("#EXT-X-TARGETDURATION:").append(segmentSeconds).append('\n')
+                    .append("#EXT-X-MEDIA-SEQUENCE:0\n");
+            for (int s = 0; s < segments; s++) {
+                String name = String.format(Locale.ROOT, "segment_%03d.ts", s);
+                transportStream(dir.resolve(name), segmentSize, 31L * r + s);
+                media.append(String.format(Locale.ROOT, "#EXTINF:%.6f,%n", (double) segmentSeconds)).append(name).append('\n');
+            }
+            media.append("#EXT-X-ENDLIST\n");
+            Files.writeString(dir.resolve("index.m3u8"), media);
+            master.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(800_000 * (r + 1)).append('\n')
+                    .append(renditions[r]).append("/index.m3u8\n");
+        }
+        Files.writeString(videoDir.resolve("master.m3u8"), master);
+        return videoDir;
+    }
+
+    static void deleteRecursively(Path root) {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
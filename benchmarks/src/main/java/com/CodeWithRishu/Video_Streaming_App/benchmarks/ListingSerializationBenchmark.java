@@ -0,0 +1,67 @@
+package com.CodeWithRishu.Video_Streaming_App.benchmarks;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoPageDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.utils.Serialization;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of {@code GET /api/v1/videos}: map the entities with
+ * {@link Serialization#mapVideoToDto} and write the page as JSON with the same date handling Spring
+ * Boot configures for the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingSerializationBenchmark {
+
+    @Param({"200"})
+    public int pageSize;
+
+    private List<Video> videos;
+    private JsonMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Instant now = Instant.parse("2025-08-10T12:00:00Z");
+        videos = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            String id = new UUID(0xb3c4L, i).toString();
+            videos.add(Video.builder()
+                    .videoId(id)
+                    .title("Benchmark video " + i)
+                    .description("A generated description for video " + i + " long enough to look like a real one.")
+                    .contentType("video/mp4")
+                    .filePath(id + ".mp4")
+                    .fileSize(64L * 1024 * 1024)
+                    .createdAt(now.minus(i, ChronoUnit.MINUTES))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] page() throws JsonProcessingException {
+        VideoPageDto page = VideoPageDto.builder()
+                .items(videos.stream().map(Serialization::mapVideoToDto).toList())
+                .nextCursor("cursor")
+                .build();
+        return mapper.writeValueAsBytes(page);
+    }
+}
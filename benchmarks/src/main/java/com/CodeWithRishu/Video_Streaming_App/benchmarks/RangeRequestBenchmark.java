@@ -0,0 +1,144 @@
+package com.CodeWithRishu.Video_Streaming_App.benchmarks;
+
+import com.CodeWithRishu.Video_Streaming_App.utils.ByteRanges;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The progressive-download path of {@code VideoController.streamVideo}: parse the Range header,
+ * resolve it with {@link ByteRanges#toRegions} and copy the region from disk the way
+ * {@code ResourceRegionHttpMessageConverter} does, or through the converter itself as the MVC
+ * handler's {@code List<ResourceRegion>} body. Offsets move through the file so the page cache,
+ * not a single hot block, is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeRequestBenchmark {
+
+    private static final long SOURCE_SIZE = 64L * 1024 * 1024;
+    // The defaults of video.stream.open-ended-chunk-size and video.stream.max-range-size
+    private static final long OPEN_ENDED_CHUNK = 8L * 1024 * 1024;
+    private static final long MAX_RANGE = 64L * 1024 * 1024;
+    private static final Type REGIONS = new ParameterizedTypeReference<List<ResourceRegion>>() {
+    }.getType();
+    private static final MediaType VIDEO_MP4 = MediaType.parseMediaType("video/mp4");
+
+    private final ResourceRegionHttpMessageConverter converter = new ResourceRegionHttpMessageConverter();
+
+    private Path dir;
+    private Resource resource;
+    private long contentLength;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bench-range");
+        Path source = Fixtures.transportStream(dir.resolve(Fixtures.VIDEO_ID + ".mp4"), SOURCE_SIZE, 1);
+        resource = new FileSystemResource(source);
+        contentLength = resource.contentLength();
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    // Kept on its own state so the open-ended benchmark does not run once per size
+    @State(Scope.Benchmark)
+    public static class Bounded {
+        @Param({"65536", "1048576"})
+        public int rangeSize;
+    }
+
+    @Benchmark
+    public long boundedRange(Bounded bounded) throws IOException {
+        long start = random.nextLong(contentLength - bounded.rangeSize);
+        return serve("bytes=" + start + "-" + (start + bounded.rangeSize - 1));
+    }
+
+    /** A player seeking with {@code bytes=N-}, answered with one open-ended chunk. */
+    @Benchmark
+    public long openEndedRange() throws IOException {
+        long start = random.nextLong(contentLength - OPEN_ENDED_CHUNK);
+        return serve("bytes=" + start + "-");
+    }
+
+    /** The same bounded range, written by the converter that serves {@code streamVideoRange}. */
+    @Benchmark
+    public long boundedRangeThroughConverter(Bounded bounded) throws IOException {
+        long start = random.nextLong(contentLength - bounded.rangeSize);
+        List<HttpRange> ranges = HttpRange.parseRanges("bytes=" + start + "-" + (start + bounded.rangeSize - 1));
+        List<ResourceRegion> regions = ByteRanges.toRegions(resource, ranges, contentLength, OPEN_ENDED_CHUNK, MAX_RANGE);
+        DiscardingOutputMessage message = new DiscardingOutputMessage();
+        converter.write(regions, REGIONS, VIDEO_MP4, message);
+        return message.body.count;
+    }
+
+    private long serve(String header) throws IOException {
+        List<HttpRange> ranges = HttpRange.parseRanges(header);
+        List<ResourceRegion> regions = ByteRanges.toRegions(resource, ranges, contentLength, OPEN_ENDED_CHUNK, MAX_RANGE);
+        long copied = 0;
+        for (ResourceRegion region : regions) {
+            try (InputStream in = region.getResource().getInputStream()) {
+                copied += StreamUtils.copyRange(in, OutputStream.nullOutputStream(),
+                        region.getPosition(), region.getPosition() + region.getCount() - 1);
+            }
+        }
+        return copied;
+    }
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final CountingOutputStream body = new CountingOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
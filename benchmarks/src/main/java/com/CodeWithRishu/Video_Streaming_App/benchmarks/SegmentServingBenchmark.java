@@ -0,0 +1,93 @@
+package com.CodeWithRishu.Video_Streaming_App.benchmarks;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The segment path behind {@code VideoServiceImpl.getHlsResource}: a hit in the in-memory
+ * {@link HlsSegmentCache}, the same bytes streamed from disk, and the miss that loads a segment
+ * into the cache. Segments are about 4MB, like the ones under {@code videos_hsl/}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentServingBenchmark {
+
+    private static final String[] RENDITIONS = {"360p", "720p"};
+    private static final int SEGMENTS = 3;
+    private static final long SEGMENT_SIZE = 4L * 1024 * 1024;
+
+    private Path hlsRoot;
+    private Path[] segments;
+    private String[] keys;
+    private HlsSegmentCache cache;
+    private HlsSegmentCache coldCache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        hlsRoot = Files.createTempDirectory("bench-hls");
+        Path videoDir = Fixtures.hlsOutput(hlsRoot, RENDITIONS, SEGMENTS, SEGMENT_SIZE, 10);
+        segments = new Path[RENDITIONS.length * SEGMENTS];
+        keys = new String[segments.length];
+        cache = new HlsSegmentCache(DataSize.ofMegabytes(256), DataSize.ofMegabytes(8));
+        for (int r = 0; r < RENDITIONS.length; r++) {
+            for (int s = 0; s < SEGMENTS; s++) {
+                String relative = RENDITIONS[r] + "/" + String.format(Locale.ROOT, "segment_%03d.ts", s);
+                int i = r * SEGMENTS + s;
+                segments[i] = videoDir.resolve(relative);
+                keys[i] = HlsSegmentCache.key(Fixtures.VIDEO_ID, relative);
+                cache.load(keys[i], segments[i]);
+            }
+        }
+        // Room for a single segment, so every load replaces the previous entry
+        coldCache = new HlsSegmentCache(DataSize.ofBytes(SEGMENT_SIZE), DataSize.ofMegabytes(8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteRecursively(hlsRoot);
+    }
+
+    @Benchmark
+    public long cacheHit() throws IOException {
+        return copy(cache.get(keys[advance()]));
+    }
+
+    @Benchmark
+    public long diskRead() throws IOException {
+        return copy(new FileSystemResource(segments[advance()]));
+    }
+
+    @Benchmark
+    public long cacheLoad() throws IOException {
+        int i = advance();
+        return copy(coldCache.load(keys[i], segments[i]));
+    }
+
+    private int advance() {
+        next = (next + 1) % segments.length;
+        return next;
+    }
+
+    private static long copy(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copy(in, OutputStream.nullOutputStream());
+        }
+    }
+}
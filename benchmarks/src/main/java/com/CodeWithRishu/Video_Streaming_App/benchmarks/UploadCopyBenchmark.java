@@ -0,0 +1,56 @@
+package com.CodeWithRishu.Video_Streaming_App.benchmarks;
+
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.service.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The copy behind {@code FileStorageService.storeFile}: stream the upload to a partial file while
+ * hashing it, then move it into place. Goes through {@code storeStream}, which shares the write path
+ * with multipart uploads without needing a servlet request; each stored file is discarded again so
+ * the disk does not fill up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadCopyBenchmark {
+
+    @Param({"16777216"})
+    public int uploadSize;
+
+    private Path dir;
+    private byte[] upload;
+    private FileStorageService storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bench-upload");
+        upload = Files.readAllBytes(Fixtures.transportStream(dir.resolve("fixture.ts"), uploadSize, 3));
+        Files.delete(dir.resolve("fixture.ts"));
+        storage = new FileStorageService(dir.toString(), DataSize.ofGigabytes(10),
+                new VideoMetrics(new SimpleMeterRegistry(), 500));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String storeStream() {
+        FileStorageService.StoredFile stored = storage.storeStream(new ByteArrayInputStream(upload), "upload.mp4");
+        storage.discard(stored.fileName());
+        return stored.sha256();
+    }
+}
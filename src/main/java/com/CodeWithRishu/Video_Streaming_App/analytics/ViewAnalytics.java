@@ -0,0 +1,208 @@
+package com.CodeWithRishu.Video_Streaming_App.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Views and bytes watched per video. The delivery endpoints only bump striped {@link LongAdder}s,
+ * so recording costs no lock and no I/O on the response path; a scheduled flush drains the deltas
+ * into {@code yt_videos} with one batched {@code UPDATE} per video that was watched.
+ * <p>
+ * The flush also feeds an exponentially decayed view score per video, from which the trending
+ * list is taken. The score only reflects views seen by this instance; the totals in the database
+ * cover all of them.
+ */
+@Service
+public class ViewAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewAnalytics.class);
+    private static final String FLUSH_SQL =
+            "update yt_videos set view_count = view_count + ?, bytes_watched = bytes_watched + ? where video_id = ?";
+    // Scores that have decayed below this are dropped, which keeps the map to recently watched videos
+    private static final double MIN_SCORE = 0.01;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final double halfLifeNanos;
+    private final int trendingSize;
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    // Only touched by the thread holding flushLock
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private List<Map.Entry<String, Counters>> retired = new ArrayList<>();
+    private final Map<String, Double> scores = new HashMap<>();
+    private long lastDecayNanos = System.nanoTime();
+    private volatile List<Trending> trending = List.of();
+
+    public ViewAnalytics(JdbcTemplate jdbcTemplate,
+                         @Value("${video.analytics.batch-size:500}") int batchSize,
+                         @Value("${video.analytics.trending-half-life:6h}") Duration trendingHalfLife,
+                         @Value("${video.analytics.trending-size:100}") int trendingSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.halfLifeNanos = trendingHalfLife.toNanos();
+        this.trendingSize = Math.max(1, trendingSize);
+    }
+
+    /** Counts bytes sent for the video, and a view when {@code startsPlayback} is set. */
+    public void record(String videoId, long bytes, boolean startsPlayback) {
+        Counters entry = counters.get(videoId);
+        while (entry == null || entry.retired) {
+            if (entry != null) {
+                counters.remove(videoId, entry);
+            }
+            entry = counters.computeIfAbsent(videoId, id -> new Counters());
+        }
+        if (startsPlayback) {
+            entry.views.increment();
+        }
+        if (bytes > 0) {
+            entry.bytes.add(bytes);
+        }
+    }
+
+    /**
+     * Whether a request for this HLS path starts playback: the first segment of a rendition, or of
+     * the single-rendition layout of older uploads.
+     */
+    public static boolean isFirstSegment(String relativePath) {
+        if (!relativePath.endsWith(".ts")) {
+            return false;
+        }
+        int end = relativePath.length() - ".ts".length();
+        int start = end;
+        while (start > 0 && Character.isDigit(relativePath.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (relativePath.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The most watched videos of late, highest score first. */
+    public List<Trending> trending(int limit) {
+        List<Trending> snapshot = trending;
+        return snapshot.size() <= limit ? snapshot : snapshot.subList(0, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${video.analytics.flush-interval:15s}")
+    public void flush() {
+        flush(System.nanoTime());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    void flush(long nowNanos) {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            Map<String, long[]> deltas = new HashMap<>();
+            // Entries retired by the previous flush. A record that picked one up just before it was
+            // retired has long since landed, so this last drain picks it up and the entry is dropped
+            for (Map.Entry<String, Counters> entry : retired) {
+                drainInto(deltas, entry.getKey(), entry.getValue());
+            }
+            retired = new ArrayList<>();
+            for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+                if (!drainInto(deltas, entry.getKey(), entry.getValue())) {
+                    // Idle since the last flush. Records that see the flag move to a fresh entry,
+                    // which the conditional remove leaves in place
+                    entry.getValue().retired = true;
+                    counters.remove(entry.getKey(), entry.getValue());
+                    retired.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            List<Object[]> rows = new ArrayList<>(deltas.size());
+            Map<String, Long> views = new HashMap<>();
+            deltas.forEach((videoId, delta) -> {
+                rows.add(new Object[]{delta[0], delta[1], videoId});
+                if (delta[0] > 0) {
+                    views.put(videoId, delta[0]);
+                }
+            });
+
+            updateTrending(views, nowNanos);
+            if (!rows.isEmpty()) {
+                write(rows);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Adds the entry's views and bytes since the last drain; returns whether there were any
+    private static boolean drainInto(Map<String, long[]> deltas, String videoId, Counters entry) {
+        long viewDelta = entry.views.sumThenReset();
+        long byteDelta = entry.bytes.sumThenReset();
+        if (viewDelta == 0 && byteDelta == 0) {
+            return false;
+        }
+        long[] delta = deltas.computeIfAbsent(videoId, id -> new long[2]);
+        delta[0] += viewDelta;
+        delta[1] += byteDelta;
+        return true;
+    }
+
+    private void write(List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException e) {
+                // Put the deltas back so the next flush retries them
+                logger.warn("Could not flush view analytics for {} videos, retrying on the next flush", batch.size(), e);
+                for (Object[] row : batch) {
+                    Counters entry = counters.computeIfAbsent((String) row[2], id -> new Counters());
+                    entry.views.add((Long) row[0]);
+                    entry.bytes.add((Long) row[1]);
+                }
+            }
+        }
+    }
+
+    private void updateTrending(Map<String, Long> views, long nowNanos) {
+        double decay = Math.pow(0.5, (nowNanos - lastDecayNanos) / halfLifeNanos);
+        lastDecayNanos = nowNanos;
+        scores.replaceAll((id, score) -> score * decay);
+        views.forEach((id, count) -> scores.merge(id, (double) count, Double::sum));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+
+        trending = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(trendingSize)
+                .map(e -> new Trending(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    public record Trending(String videoId, double score) {
+    }
+
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        // Set once the entry is out of the map; records seeing it move to a fresh entry
+        volatile boolean retired;
+    }
+}
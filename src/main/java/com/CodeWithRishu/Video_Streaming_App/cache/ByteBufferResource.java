@@ -0,0 +1,96 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view over a cached buffer. Every stream gets its own duplicate, so concurrent
+ * readers never disturb each other's position.
+ */
+public class ByteBufferResource extends AbstractResource {
+
+    private final ByteBuffer buffer;
+    private final String filename;
+    private final long lastModified;
+
+    public ByteBufferResource(ByteBuffer buffer, String filename, long lastModified) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.filename = filename;
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    public ByteBuffer getByteBuffer() {
+        return buffer.duplicate();
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cached buffer [" + filename + "]";
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-budgeted LRU cache of HLS playlists and segments held in direct buffers, keyed by
+ * {@code videoId/relative/path}. A hit is answered without touching the filesystem. Besides the
+ * size budget, entries nobody has asked for in a while can be dropped with {@link #evictIdle}.
+ * <p>
+ * Each output has a generation that {@link #evict} and {@link #invalidate} bump. A load that read
+ * its file across a bump returns the bytes but does not cache them, so an invalidation can never be
+ * undone by a read that started before it.
+ */
+@Component
+public class HlsSegmentCache {
+
+    // Outputs share generation counters by hash, which bounds the memory; a collision only costs a skipped insert
+    private static final int GENERATION_STRIPES = 64;
+
+    private final long capacityBytes;
+    private final long maxEntryBytes;
+
+    // Access-ordered, so the least recently used entry is also the longest idle one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private long sizeBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HlsSegmentCache(@Value("${video.hls.cache.capacity:256MB}") DataSize capacity,
+                           @Value("${video.hls.cache.max-entry-size:8MB}") DataSize maxEntrySize) {
+        this.capacityBytes = capacity.toBytes();
+        this.maxEntryBytes = Math.min(maxEntrySize.toBytes(), capacityBytes);
+    }
+
+    public static String key(String videoId, String relativePath) {
+        return videoId + "/" + relativePath;
+    }
+
+    public Resource get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            entry.lastAccessNanos = System.nanoTime();
+            return entry.resource;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the file into a direct buffer and caches it. Files too large for a single entry are
+     * returned as {@code null} so the caller can stream them from disk instead.
+     */
+    public Resource load(String key, Path file) throws IOException {
+        return load(key, file, generation(key));
+    }
+
+    long generation(String key) {
+        lock.lock();
+        try {
+            return generations[stripe(outputOf(key))];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Resource load(String key, Path file, long generation) throws IOException {
+        long size = Files.size(file);
+        if (size > maxEntryBytes) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // keep reading until the buffer is full
+            }
+        }
+        buffer.flip();
+        ByteBufferResource resource = new ByteBufferResource(buffer, file.getFileName().toString(),
+                Files.getLastModifiedTime(file).toMillis());
+
+        lock.lock();
+        try {
+            if (generations[stripe(outputOf(key))] != generation) {
+                // Evicted or invalidated while the file was read
+                return resource;
+            }
+            Entry previous = entries.put(key, new Entry(resource, System.nanoTime()));
+            if (previous != null) {
+                sizeBytes -= previous.resource.contentLength();
+            }
+            sizeBytes += resource.contentLength();
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+        return resource;
+    }
+
+    public boolean contains(String key) {
+        lock.lock();
+        try {
+            return entries.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(String key) {
+        lock.lock();
+        try {
+            generations[stripe(outputOf(key))]++;
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                sizeBytes -= removed.resource.contentLength();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String videoId) {
+        String prefix = videoId + "/";
+        lock.lock();
+        try {
+            generations[stripe(videoId)]++;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    sizeBytes -= entry.getValue().resource.contentLength();
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops entries that have not been requested for {@code idle}, so memory taken by prefetched
+     * segments nobody played, or by videos that stopped being watched, is given back. Returns the
+     * number of entries removed.
+     */
+    public int evictIdle(Duration idle) {
+        return evictAccessedBefore(System.nanoTime() - idle.toNanos());
+    }
+
+    int evictAccessedBefore(long cutoffNanos) {
+        int removed = 0;
+        lock.lock();
+        try {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.lastAccessNanos - cutoffNanos >= 0) {
+                    break;
+                }
+                sizeBytes -= entry.resource.contentLength();
+                it.remove();
+                evictions.increment();
+                removed++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return removed;
+    }
+
+    public CacheStatsDto stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        lock.lock();
+        try {
+            return CacheStatsDto.builder()
+                    .hits(hitCount)
+                    .misses(missCount)
+                    .evictions(evictions.sum())
+                    .entries(entries.size())
+                    .sizeBytes(sizeBytes)
+                    .capacityBytes(capacityBytes)
+                    .hitRatio(hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount))
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String outputOf(String key) {
+        int slash = key.indexOf('/');
+        return slash < 0 ? key : key.substring(0, slash);
+    }
+
+    private static int stripe(String output) {
+        return Math.floorMod(output.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (sizeBytes > capacityBytes && it.hasNext()) {
+            sizeBytes -= it.next().resource.contentLength();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+        final ByteBufferResource resource;
+        // Written under the lock
+        long lastAccessNanos;
+
+        Entry(ByteBufferResource resource, long lastAccessNanos) {
+            this.resource = resource;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Shared (L2) key/value store behind {@link VideoMetadataCache}. Production uses Redis; tests can
+ * plug in an in-memory stand-in.
+ *
+ * <p>Every key has a generation that {@link #delete} bumps. A loader reads the generation before
+ * going to the database and writes with it, so a load that raced with an eviction is dropped
+ * instead of putting the old row back for a whole TTL.
+ */
+public interface MetadataStore {
+
+    Optional<String> get(String key);
+
+    long generation(String key);
+
+    /** Writes {@code value} only while {@code key} is still at {@code generation}; returns whether it did. */
+    boolean put(String key, String value, Duration ttl, long generation);
+
+    /** Bumps the generation of {@code key} and removes its value. */
+    void delete(String key);
+
+    void publishInvalidation(String videoId);
+
+    void onInvalidation(Consumer<String> listener);
+
+    /** Announces a title or description change, on a channel of its own so cache evictions do not reach the search index. */
+    void publishSearchUpdate(String videoId);
+
+    void onSearchUpdate(Consumer<String> listener);
+}
@@ -0,0 +1,98 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class RedisMetadataStore implements MetadataStore {
+
+    private static final String GENERATION_SUFFIX = ":gen";
+    // Only has to outlive the slowest in-flight load; an expired generation reads as 0 again
+    private static final Duration GENERATION_TTL = Duration.ofHours(1);
+
+    private static final RedisScript<Long> PUT_IF_GENERATION = RedisScript.of("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[3] then
+              return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> BUMP_AND_DELETE = RedisScript.of("""
+            local generation = redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            redis.call('DEL', KEYS[1])
+            return generation
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic invalidationTopic;
+    private final ChannelTopic searchUpdateTopic;
+
+    public RedisMetadataStore(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                              String invalidationChannel, String searchUpdateChannel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.invalidationTopic = new ChannelTopic(invalidationChannel);
+        this.searchUpdateTopic = new ChannelTopic(searchUpdateChannel);
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+    }
+
+    @Override
+    public long generation(String key) {
+        String generation = redisTemplate.opsForValue().get(key + GENERATION_SUFFIX);
+        return generation == null ? 0 : Long.parseLong(generation);
+    }
+
+    @Override
+    public boolean put(String key, String value, Duration ttl, long generation) {
+        Long written = redisTemplate.execute(PUT_IF_GENERATION, List.of(key, key + GENERATION_SUFFIX),
+                value, Long.toString(ttl.toMillis()), Long.toString(generation));
+        return written != null && written == 1;
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.execute(BUMP_AND_DELETE, List.of(key, key + GENERATION_SUFFIX), Long.toString(GENERATION_TTL.toMillis()));
+    }
+
+    @Override
+    public void publishInvalidation(String videoId) {
+        redisTemplate.convertAndSend(invalidationTopic.getTopic(), videoId);
+    }
+
+    @Override
+    public void onInvalidation(Consumer<String> listener) {
+        subscribe(invalidationTopic, listener);
+    }
+
+    @Override
+    public void publishSearchUpdate(String videoId) {
+        redisTemplate.convertAndSend(searchUpdateTopic.getTopic(), videoId);
+    }
+
+    @Override
+    public void onSearchUpdate(Consumer<String> listener) {
+        subscribe(searchUpdateTopic, listener);
+    }
+
+    private void subscribe(ChannelTopic topic, Consumer<String> listener) {
+        MessageListener messageListener = (Message message, byte[] pattern) ->
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        listenerContainer.addMessageListener(messageListener, topic);
+    }
+}
@@ -0,0 +1,208 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.service.HlsSegmentStore;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPublishedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads HLS files into {@link HlsSegmentCache} ahead of the requests for them: the playlists and
+ * first segments of every rendition when a video is published or enters the trending list, and the
+ * next few segments of a rendition whenever one is served. Files are looked up in
+ * {@link HlsSegmentStore}, so only indexed output is ever read. Segments too large for the cache
+ * are read through once so at least the page cache is warm.
+ * <p>
+ * All loading happens on a small bounded pool. When it falls behind, new prefetches are dropped
+ * rather than queued, since a late prefetch is worth nothing.
+ */
+@Component
+public class SegmentPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentPrefetcher.class);
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final HlsSegmentCache hlsSegmentCache;
+    private final ViewAnalytics viewAnalytics;
+    private final VideoRepository videoRepository;
+    private final HlsSegmentStore hlsSegmentStore;
+    private final int warmSegments;
+    private final int readAhead;
+    private final int trendingVideos;
+    private final Duration idleTtl;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder loaded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    // Only touched by the scheduled maintenance run
+    private Set<String> warmedTrending = Set.of();
+
+    public SegmentPrefetcher(HlsSegmentCache hlsSegmentCache,
+                             ViewAnalytics viewAnalytics,
+                             VideoRepository videoRepository,
+                             HlsSegmentStore hlsSegmentStore,
+                             @Value("${video.prefetch.warm-segments:3}") int warmSegments,
+                             @Value("${video.prefetch.read-ahead:2}") int readAhead,
+                             @Value("${video.prefetch.trending-videos:10}") int trendingVideos,
+                             @Value("${video.prefetch.idle-ttl:5m}") Duration idleTtl,
+                             @Value("${video.prefetch.threads:2}") int threads) {
+        this.hlsSegmentCache = hlsSegmentCache;
+        this.viewAnalytics = viewAnalytics;
+        this.videoRepository = videoRepository;
+        this.hlsSegmentStore = hlsSegmentStore;
+        this.warmSegments = Math.max(0, warmSegments);
+        this.readAhead = Math.max(0, readAhead);
+        this.trendingVideos = Math.max(0, trendingVideos);
+        this.idleTtl = idleTtl;
+
+        AtomicInteger counter = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "hls-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onPublished(HlsPublishedEvent event) {
+        warm(event.hlsKey());
+    }
+
+    /** Queues the playlists and the first segments of every rendition of {@code hlsKey}. */
+    public void warm(String hlsKey) {
+        if (warmSegments == 0) {
+            return;
+        }
+        HlsSegmentStore.Manifest manifest = hlsSegmentStore.manifest(hlsKey).orElseGet(() -> hlsSegmentStore.refresh(hlsKey));
+        if (manifest == null || manifest.files().isEmpty()) {
+            logger.debug("No HLS output to warm for {}", hlsKey);
+            return;
+        }
+        // Older uploads have a single media playlist in place of the master, so it may be listed twice
+        Set<String> paths = new LinkedHashSet<>();
+        manifest.files().keySet().stream().filter(path -> path.endsWith(".m3u8")).forEach(paths::add);
+        for (HlsSegmentStore.MediaPlaylist playlist : manifest.mediaPlaylists()) {
+            playlist.segments().stream().limit(warmSegments).forEach(paths::add);
+        }
+        paths.forEach(path -> prefetch(hlsKey, path));
+        logger.debug("Queued warm-up of {} files of HLS output {}", paths.size(), hlsKey);
+    }
+
+    /**
+     * Queues the segments following {@code relativePath} in its rendition. Called on every segment
+     * request, hit or miss; segments already cached or already queued are skipped.
+     */
+    public void readAhead(String hlsKey, String relativePath) {
+        int end = relativePath.length() - ".ts".length();
+        if (readAhead == 0 || end <= 0 || !relativePath.endsWith(".ts")) {
+            return;
+        }
+        int start = end;
+        while (start > 0 && Character.isDigit(relativePath.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || end - start > 9) {
+            return;
+        }
+        String prefix = relativePath.substring(0, start);
+        int index = Integer.parseInt(relativePath.substring(start, end));
+        String format = "%0" + (end - start) + "d";
+        for (int i = 1; i <= readAhead; i++) {
+            prefetch(hlsKey, prefix + String.format(Locale.ROOT, format, index + i) + ".ts");
+        }
+    }
+
+    /** Drops cache entries nobody asked for lately and warms videos that just started trending. */
+    @Scheduled(fixedDelayString = "${video.prefetch.interval:1m}")
+    public void maintain() {
+        int evicted = hlsSegmentCache.evictIdle(idleTtl);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle HLS cache entries", evicted);
+        }
+        if (trendingVideos == 0) {
+            return;
+        }
+
+        Set<String> trending = new HashSet<>();
+        viewAnalytics.trending(trendingVideos).forEach(t -> trending.add(t.videoId()));
+        List<String> rising = trending.stream().filter(id -> !warmedTrending.contains(id)).toList();
+        warmedTrending = trending;
+        if (!rising.isEmpty()) {
+            videoRepository.findAllById(rising).stream()
+                    .filter(video -> video.getHlsVersion() != null)
+                    .map(Video::resolveHlsKey)
+                    .distinct()
+                    .forEach(this::warm);
+        }
+    }
+
+    public long getLoaded() {
+        return loaded.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void prefetch(String hlsKey, String relativePath) {
+        String key = HlsSegmentCache.key(hlsKey, relativePath);
+        if (hlsSegmentCache.contains(key) || !inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    hlsSegmentStore.resolve(hlsKey, relativePath).ifPresent(file -> load(key, file));
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            dropped.increment();
+        }
+    }
+
+    private void load(String key, Path file) {
+        try {
+            if (hlsSegmentCache.load(key, file) == null) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            } else if (!Files.exists(file)) {
+                // Deleted while it was read; the deletion's invalidate may already have run
+                hlsSegmentCache.evict(key);
+                return;
+            }
+            loaded.increment();
+        } catch (IOException e) {
+            // Typically deleted since it was indexed
+            logger.debug("Could not prefetch {}", file, e);
+        }
+    }
+}
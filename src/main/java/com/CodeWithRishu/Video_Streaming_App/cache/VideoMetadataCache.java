@@ -0,0 +1,195 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.MetadataCacheStatsDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for {@link Video} rows: a per-node map (L1) in front of the shared
+ * {@link MetadataStore} (L2). Concurrent misses for the same id share a single load, and L2
+ * failures degrade to a database read instead of failing the request. Unknown ids are cached as
+ * short-lived negative entries, and a load that overlaps an eviction never writes its result back.
+ */
+@Component
+public class VideoMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoMetadataCache.class);
+    private static final String KEY_PREFIX = "video:meta:";
+    private static final String MISSING = "null";
+
+    private final MetadataStore metadataStore;
+    private final ObjectMapper objectMapper;
+    private final long l1TtlNanos;
+    private final int l1MaxEntries;
+    private final Duration l2Ttl;
+    private final long negativeL1TtlNanos;
+    private final Duration negativeTtl;
+
+    private final ConcurrentMap<String, L1Entry> l1 = new ConcurrentHashMap<>();
+    // Bumped before every L1 removal on this node; a load only keeps its L1 entry if none happened meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+    private final ConcurrentMap<String, CompletableFuture<Optional<Video>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder l2Errors = new LongAdder();
+
+    public VideoMetadataCache(MetadataStore metadataStore,
+                              ObjectMapper objectMapper,
+                              @Value("${video.metadata-cache.l1-ttl:30s}") Duration l1Ttl,
+                              @Value("${video.metadata-cache.l1-max-entries:10000}") int l1MaxEntries,
+                              @Value("${video.metadata-cache.l2-ttl:10m}") Duration l2Ttl,
+                              @Value("${video.metadata-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.metadataStore = metadataStore;
+        this.objectMapper = objectMapper;
+        this.l1TtlNanos = l1Ttl.toNanos();
+        this.l1MaxEntries = l1MaxEntries;
+        this.l2Ttl = l2Ttl;
+        this.negativeL1TtlNanos = Math.min(l1TtlNanos, negativeTtl.toNanos());
+        this.negativeTtl = negativeTtl;
+        metadataStore.onInvalidation(this::removeL1);
+    }
+
+    public Optional<Video> get(String videoId, Supplier<Optional<Video>> loader) {
+        L1Entry entry = l1.get(videoId);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            l1Hits.increment();
+            return Optional.ofNullable(entry.video);
+        }
+
+        CompletableFuture<Optional<Video>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Video>> existing = inFlight.putIfAbsent(videoId, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            long invalidationsBefore = invalidations.get();
+            Optional<Video> video = loadThrough(videoId, loader);
+            putL1(videoId, video.orElse(null), invalidationsBefore);
+            mine.complete(video);
+            return video;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(videoId, mine);
+        }
+    }
+
+    public void evict(String videoId) {
+        removeL1(videoId);
+        try {
+            metadataStore.delete(KEY_PREFIX + videoId);
+            metadataStore.publishInvalidation(videoId);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            logger.warn("Could not invalidate shared metadata cache for videoId: {}", videoId, e);
+        }
+    }
+
+    public MetadataCacheStatsDto stats() {
+        long l1 = l1Hits.sum();
+        long l2 = l2Hits.sum();
+        long miss = misses.sum();
+        long total = l1 + l2 + miss;
+        return MetadataCacheStatsDto.builder()
+                .l1Hits(l1)
+                .l2Hits(l2)
+                .misses(miss)
+                .l2Errors(l2Errors.sum())
+                .l1Entries(this.l1.size())
+                .hitRatio(total == 0 ? 0.0 : (double) (l1 + l2) / total)
+                .build();
+    }
+
+    private Optional<Video> loadThrough(String videoId, Supplier<Optional<Video>> loader) {
+        String key = KEY_PREFIX + videoId;
+        long generation = -1;
+        try {
+            Optional<String> json = metadataStore.get(key);
+            if (json.isPresent()) {
+                l2Hits.increment();
+                return MISSING.equals(json.get()) ? Optional.empty() : Optional.of(objectMapper.readValue(json.get(), Video.class));
+            }
+            // Read before the database, so an eviction landing after this makes the write-back a no-op
+            generation = metadataStore.generation(key);
+        } catch (JsonProcessingException | RuntimeException e) {
+            l2Errors.increment();
+            logger.warn("Shared metadata cache read failed for videoId: {}, falling back to database", videoId, e);
+        }
+
+        misses.increment();
+        Optional<Video> video = loader.get();
+        if (generation >= 0) {
+            try {
+                String value = video.isPresent() ? objectMapper.writeValueAsString(video.get()) : MISSING;
+                if (!metadataStore.put(key, value, jittered(video.isPresent() ? l2Ttl : negativeTtl), generation)) {
+                    logger.debug("Dropped shared metadata cache write for videoId: {}, evicted while loading", videoId);
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                l2Errors.increment();
+                logger.warn("Shared metadata cache write failed for videoId: {}", videoId, e);
+            }
+        }
+        return video;
+    }
+
+    private void putL1(String videoId, Video video, long invalidationsBefore) {
+        if (l1.size() >= l1MaxEntries) {
+            long now = System.nanoTime();
+            l1.values().removeIf(e -> e.expiresAt - now <= 0);
+            if (l1.size() >= l1MaxEntries) {
+                return;
+            }
+        }
+        L1Entry entry = new L1Entry(video, System.nanoTime() + (video != null ? l1TtlNanos : negativeL1TtlNanos));
+        l1.put(videoId, entry);
+        // An invalidation that ran before the put could not remove it, so take it out again
+        if (invalidations.get() != invalidationsBefore) {
+            l1.remove(videoId, entry);
+        }
+    }
+
+    private void removeL1(String videoId) {
+        invalidations.incrementAndGet();
+        l1.remove(videoId);
+    }
+
+    // Spread expiries so keys written together do not all miss together
+    private static Duration jittered(Duration ttl) {
+        long millis = ttl.toMillis();
+        return Duration.ofMillis(millis - millis / 10 + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+    }
+
+    private static Optional<Video> join(CompletableFuture<Optional<Video>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record L1Entry(Video video, long expiresAt) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.CodeWithRishu.Video_Streaming_App.config;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.MetadataStore;
+import com.CodeWithRishu.Video_Streaming_App.cache.RedisMetadataStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class MetadataCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer metadataInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public MetadataStore metadataStore(StringRedisTemplate redisTemplate,
+                                       RedisMessageListenerContainer metadataInvalidationListenerContainer,
+                                       @Value("${video.metadata-cache.invalidation-channel:video-metadata-invalidation}") String channel,
+                                       @Value("${video.search.update-channel:video-search-update}") String searchChannel) {
+        return new RedisMetadataStore(redisTemplate, metadataInvalidationListenerContainer, channel, searchChannel);
+    }
+}
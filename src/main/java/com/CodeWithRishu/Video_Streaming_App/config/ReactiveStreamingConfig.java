@@ -0,0 +1,84 @@
+package com.CodeWithRishu.Video_Streaming_App.config;
+
+import com.CodeWithRishu.Video_Streaming_App.controller.ReactiveStreamingHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.TomcatHttpHandlerAdapter;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.List;
+
+/**
+ * Mounts the reactive streaming endpoints as their own servlet next to the MVC dispatcher. The
+ * adapter uses Servlet non-blocking I/O, so a slow client parks its response instead of a thread.
+ */
+@Configuration
+public class ReactiveStreamingConfig {
+
+    @Bean
+    public ServletRegistrationBean<TomcatHttpHandlerAdapter> reactiveStreamingServlet(
+            ReactiveStreamingHandler handler,
+            ObjectProvider<ObservationRegistry> observationRegistry,
+            @Value("${video.reactive.base-path:/api/v2/videos}") String basePath) {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(List.of("http://localhost:5173"));
+        cors.setAllowedMethods(List.of("GET", "HEAD"));
+        cors.addAllowedHeader(CorsConfiguration.ALL);
+        cors.setExposedHeaders(List.of(HttpHeaders.CONTENT_RANGE, HttpHeaders.ACCEPT_RANGES, HttpHeaders.ETAG));
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/**", cors);
+
+        // Built by hand rather than with RouterFunctions.toHttpHandler so these requests are observed
+        // into http.server.requests like the MVC endpoints
+        HttpHandler httpHandler = WebHttpHandlerBuilder
+                .webHandler(RouterFunctions.toWebHandler(routes(handler).filter(observedPattern(basePath)),
+                        HandlerStrategies.withDefaults()))
+                .filter(new CorsWebFilter(corsSource))
+                .observationRegistry(observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .build();
+
+        ServletRegistrationBean<TomcatHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(new TomcatHttpHandlerAdapter(httpHandler), basePath + "/*");
+        registration.setName("reactiveStreaming");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    // Without a DispatcherHandler nothing records the matched route, and the uri tag would be UNKNOWN
+    private static HandlerFilterFunction<ServerResponse, ServerResponse> observedPattern(String basePath) {
+        return (request, next) -> {
+            request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+                    .ifPresent(pattern -> ServerRequestObservationContext.findCurrent(request.exchange().getAttributes())
+                            .ifPresent(context -> context.setPathPattern(basePath + ((PathPattern) pattern).getPatternString())));
+            return next.handle(request);
+        };
+    }
+
+    // Paths are relative to the servlet mapping
+    public static RouterFunction<ServerResponse> routes(ReactiveStreamingHandler handler) {
+        return RouterFunctions.route()
+                .GET("/stream/{videoId}", handler::streamVideo)
+                .GET("/{videoId}/master.m3u8", handler::masterPlaylist)
+                .GET("/{videoId}/{segmentName:.+\\.ts}", handler::segment)
+                .GET("/{videoId}/{rendition:[A-Za-z0-9_-]+}/{playlistName:[A-Za-z0-9_-]+\\.m3u8}", handler::renditionPlaylist)
+                .GET("/{videoId}/{rendition:[A-Za-z0-9_-]+}/{segmentName:[A-Za-z0-9_-]+\\.ts}", handler::renditionSegment)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.cache.VideoMetadataCache;
+import com.CodeWithRishu.Video_Streaming_App.dto.CacheStatsDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.HlsStoreStatsDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.MetadataCacheStatsDto;
+import com.CodeWithRishu.Video_Streaming_App.service.HlsSegmentStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final HlsSegmentCache hlsSegmentCache;
+    private final VideoMetadataCache videoMetadataCache;
+    private final HlsSegmentStore hlsSegmentStore;
+
+    public AdminController(HlsSegmentCache hlsSegmentCache, VideoMetadataCache videoMetadataCache,
+                           HlsSegmentStore hlsSegmentStore) {
+        this.hlsSegmentCache = hlsSegmentCache;
+        this.videoMetadataCache = videoMetadataCache;
+        this.hlsSegmentStore = hlsSegmentStore;
+    }
+
+    // ─── HLS Cache Statistics ──────────────────────────────────────────────────────
+    @GetMapping("/cache/hls")
+    public ResponseEntity<CacheStatsDto> getHlsCacheStats() {
+        return ResponseEntity.ok(hlsSegmentCache.stats());
+    }
+
+    // ─── Metadata Cache Statistics ─────────────────────────────────────────────────
+    @GetMapping("/cache/metadata")
+    public ResponseEntity<MetadataCacheStatsDto> getMetadataCacheStats() {
+        return ResponseEntity.ok(videoMetadataCache.stats());
+    }
+
+    // ─── HLS Segment Store (index and integrity) ───────────────────────────────────
+    @GetMapping("/hls/store")
+    public ResponseEntity<HlsStoreStatsDto> getHlsStoreStats() {
+        return ResponseEntity.ok(hlsSegmentStore.stats());
+    }
+}
@@ -0,0 +1,265 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPlaylists;
+import com.CodeWithRishu.Video_Streaming_App.utils.ByteRanges;
+import com.CodeWithRishu.Video_Streaming_App.utils.CacheValidators;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.ResourceRegionEncoder;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterparts of the streaming endpoints in {@link VideoController}, served under
+ * {@code /api/v2/videos}. File chunks are read with {@code AsynchronousFileChannel} and only
+ * pulled as fast as the client drains the socket; single ranges use zero-copy transfer when the
+ * server transport supports it. Lookups still go through {@link VideoService} on the bounded
+ * elastic scheduler, since they may hit the database or the disk.
+ */
+@Component
+public class ReactiveStreamingHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveStreamingHandler.class);
+    private static final MediaType PLAYLIST_TYPE = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+    private static final MediaType SEGMENT_TYPE = MediaType.parseMediaType("video/MP2T");
+    private static final ResolvableType REGION_TYPE = ResolvableType.forClass(ResourceRegion.class);
+
+    private final VideoService videoService;
+    private final VideoMetrics videoMetrics;
+    private final ViewAnalytics viewAnalytics;
+    private final long openEndedChunkSize;
+    private final long maxRangeSize;
+    private final CacheControl segmentCacheControl;
+    private final CacheControl playlistCacheControl;
+    private final ResourceRegionEncoder regionEncoder;
+
+    public ReactiveStreamingHandler(VideoService videoService,
+                                    VideoMetrics videoMetrics,
+                                    ViewAnalytics viewAnalytics,
+                                    @Value("${video.stream.open-ended-chunk-size:8MB}") DataSize openEndedChunkSize,
+                                    @Value("${video.stream.max-range-size:64MB}") DataSize maxRangeSize,
+                                    @Value("${video.http.segment-max-age:365d}") Duration segmentMaxAge,
+                                    @Value("${video.http.playlist-max-age:60s}") Duration playlistMaxAge,
+                                    @Value("${video.reactive.read-buffer-size:64KB}") DataSize readBufferSize) {
+        this.videoService = videoService;
+        this.videoMetrics = videoMetrics;
+        this.viewAnalytics = viewAnalytics;
+        this.openEndedChunkSize = openEndedChunkSize.toBytes();
+        this.maxRangeSize = maxRangeSize.toBytes();
+        this.segmentCacheControl = CacheControl.maxAge(segmentMaxAge).cachePublic().immutable();
+        this.playlistCacheControl = CacheControl.maxAge(playlistMaxAge).cachePublic();
+        this.regionEncoder = new ResourceRegionEncoder((int) readBufferSize.toBytes());
+    }
+
+    // ─── Byte‐Range Video Streaming ────────────────────────────────────────────────
+    public Mono<ServerResponse> streamVideo(ServerRequest request) {
+        String videoId = request.pathVariable("videoId");
+        logger.debug("Reactive streaming of video for videoId: {}", videoId);
+        return Mono.fromCallable(() -> source(videoId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(source -> rangeResponse(request, videoId, source))
+                .onErrorResume(FileNotFoundException.class, e -> {
+                    logger.debug("Video file not found for videoId: {}", videoId, e);
+                    return ServerResponse.notFound().build();
+                });
+    }
+
+    // ─── HLS Playlists & Segments ──────────────────────────────────────────────────
+    public Mono<ServerResponse> masterPlaylist(ServerRequest request) {
+        String videoId = request.pathVariable("videoId");
+        return hls(request, HlsPlaylists.MASTER_PLAYLIST, PLAYLIST_TYPE,
+                () -> videoService.getHlsResource(videoId, HlsPlaylists.MASTER_PLAYLIST));
+    }
+
+    public Mono<ServerResponse> segment(ServerRequest request) {
+        String videoId = request.pathVariable("videoId");
+        String segmentName = request.pathVariable("segmentName");
+        return hls(request, segmentName, SEGMENT_TYPE, () -> videoService.getHlsResource(videoId, segmentName));
+    }
+
+    public Mono<ServerResponse> renditionPlaylist(ServerRequest request) {
+        String videoId = request.pathVariable("videoId");
+        String rendition = request.pathVariable("rendition");
+        String playlistName = request.pathVariable("playlistName");
+        return hls(request, rendition + "/" + playlistName, PLAYLIST_TYPE,
+                () -> videoService.getHlsResource(videoId, rendition, playlistName));
+    }
+
+    public Mono<ServerResponse> renditionSegment(ServerRequest request) {
+        String videoId = request.pathVariable("videoId");
+        String rendition = request.pathVariable("rendition");
+        String segmentName = request.pathVariable("segmentName");
+        return hls(request, rendition + "/" + segmentName, SEGMENT_TYPE,
+                () -> videoService.getHlsResource(videoId, rendition, segmentName));
+    }
+
+    private Mono<ServerResponse> hls(ServerRequest request, String relativePath, MediaType mediaType, HlsLookup lookup) {
+        String videoId = request.pathVariable("videoId");
+        logger.debug("Reactive serving of HLS resource {} for videoId: {}", relativePath, videoId);
+        return Mono.fromCallable(() -> videoService.find(videoId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(video -> {
+                    String etag = video.map(v -> CacheValidators.hlsEtag(v, relativePath)).orElse(null);
+                    long lastModified = video.map(CacheValidators::hlsLastModified).orElse(-1L);
+                    String version = video.map(Video::getHlsVersion).orElse(null);
+                    CacheControl cacheControl = etag == null ? CacheControl.noCache()
+                            : SEGMENT_TYPE.equals(mediaType) && request.queryParam(HlsPlaylists.VERSION_PARAM).filter(version::equals).isPresent()
+                            ? segmentCacheControl : playlistCacheControl;
+
+                    if (etag != null && request.exchange().checkNotModified(etag, Instant.ofEpochMilli(lastModified))) {
+                        return validators(ServerResponse.status(HttpStatus.NOT_MODIFIED), etag, lastModified)
+                                .cacheControl(cacheControl)
+                                .build();
+                    }
+                    // The resource writer answers Range requests on segments by itself
+                    return Mono.fromCallable(() -> PLAYLIST_TYPE.equals(mediaType) && version != null
+                                    ? HlsPlaylists.versionSegmentUris(lookup.get(), version) : lookup.get())
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(resource -> {
+                                videoMetrics.recordBytesServed(videoId, VideoMetrics.renditionOf(relativePath), contentLength(resource));
+                                if (SEGMENT_TYPE.equals(mediaType)) {
+                                    viewAnalytics.record(videoId, contentLength(resource), ViewAnalytics.isFirstSegment(relativePath));
+                                }
+                                return validators(ServerResponse.ok(), etag, lastModified)
+                                        .cacheControl(cacheControl)
+                                        .contentType(mediaType)
+                                        .body(BodyInserters.fromResource(resource));
+                            });
+                })
+                .onErrorResume(FileNotFoundException.class, e -> {
+                    logger.debug("HLS resource {} not found for videoId: {}", relativePath, videoId, e);
+                    return ServerResponse.notFound().build();
+                });
+    }
+
+    private Source source(String videoId) throws IOException {
+        Resource resource = videoService.getVideoResource(videoId);
+        String etag = videoService.find(videoId).map(CacheValidators::sourceEtag).orElse(null);
+        MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new Source(resource, resource.contentLength(), resource.lastModified(), etag, mediaType);
+    }
+
+    // Same range policy as the servlet endpoint: open-ended ranges are chunked, explicit ranges capped
+    private Mono<ServerResponse> rangeResponse(ServerRequest request, String videoId, Source source) {
+        HttpHeaders headers = request.headers().asHttpHeaders();
+        List<HttpRange> ranges = requestedRanges(headers);
+
+        if (ranges.isEmpty() || !ByteRanges.ifRangeMatches(headers, source.etag(), source.lastModified())) {
+            ResourceRegion whole = new ResourceRegion(source.resource(), 0, source.contentLength());
+            videoMetrics.recordBytesServed(videoId, "source", source.contentLength());
+            viewAnalytics.record(videoId, source.contentLength(), true);
+            return validators(ServerResponse.ok(), source.etag(), source.lastModified())
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(source.mediaType())
+                    .contentLength(source.contentLength())
+                    .body(writeRegions(List.of(whole), source.mediaType(), null));
+        }
+
+        List<ResourceRegion> regions;
+        Timer.Sample sample = videoMetrics.startTimer();
+        try {
+            regions = ByteRanges.toRegions(source.resource(), ranges, source.contentLength(), openEndedChunkSize, maxRangeSize);
+            videoMetrics.recordRegions(sample, regions.size());
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + source.contentLength())
+                    .build();
+        }
+
+        long served = regions.stream().mapToLong(ResourceRegion::getCount).sum();
+        videoMetrics.recordBytesServed(videoId, "source", served);
+        viewAnalytics.record(videoId, served, regions.get(0).getPosition() == 0);
+        ServerResponse.BodyBuilder response = validators(ServerResponse.status(HttpStatus.PARTIAL_CONTENT), source.etag(), source.lastModified())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (regions.size() == 1) {
+            ResourceRegion region = regions.get(0);
+            long end = region.getPosition() + region.getCount() - 1;
+            return response.contentType(source.mediaType())
+                    .contentLength(region.getCount())
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + region.getPosition() + "-" + end + "/" + source.contentLength())
+                    .body(writeRegions(regions, source.mediaType(), null));
+        }
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        return response.contentType(MediaType.parseMediaType("multipart/byteranges;boundary=" + boundary))
+                .body(writeRegions(regions, source.mediaType(), boundary));
+    }
+
+    private BodyInserter<Void, ReactiveHttpOutputMessage> writeRegions(List<ResourceRegion> regions, MediaType mediaType, String boundary) {
+        return (message, context) -> {
+            if (boundary == null) {
+                ResourceRegion region = regions.get(0);
+                if (message instanceof ZeroCopyHttpOutputMessage zeroCopy && region.getResource().isFile()) {
+                    try {
+                        return zeroCopy.writeWith(region.getResource().getFile().toPath(), region.getPosition(), region.getCount());
+                    } catch (IOException e) {
+                        return Mono.error(e);
+                    }
+                }
+                return message.writeWith(regionEncoder.encode(Mono.just(region), message.bufferFactory(),
+                        REGION_TYPE, mediaType, Map.of()));
+            }
+            return message.writeWith(regionEncoder.encode(Flux.fromIterable(regions), message.bufferFactory(),
+                    REGION_TYPE, mediaType, Map.of(ResourceRegionEncoder.BOUNDARY_STRING_HINT, boundary)));
+        };
+    }
+
+    private static ServerResponse.BodyBuilder validators(ServerResponse.BodyBuilder builder, String etag, long lastModified) {
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (lastModified > 0) {
+            builder.lastModified(Instant.ofEpochMilli(lastModified));
+        }
+        return builder;
+    }
+
+    private static long contentLength(Resource resource) {
+        try {
+            return resource.contentLength();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // A syntactically invalid Range header is ignored, per RFC 9110
+    private static List<HttpRange> requestedRanges(HttpHeaders headers) {
+        try {
+            return headers.getRange();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private record Source(Resource resource, long contentLength, long lastModified, String etag, MediaType mediaType) {
+    }
+
+    @FunctionalInterface
+    private interface HlsLookup {
+        Resource get() throws FileNotFoundException;
+    }
+}
@@ -0,0 +1,120 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.CustomMessage;
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadInitRequestDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadSessionDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.InvalidUploadException;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadAbortedException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadNotFoundException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadTooLargeException;
+import com.CodeWithRishu.Video_Streaming_App.service.ChunkedUploadService;
+import com.CodeWithRishu.Video_Streaming_App.utils.Serialization;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/uploads")
+@CrossOrigin(origins = "http://localhost:5173")
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public UploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    // ─── Init Upload ───────────────────────────────────────────────────────────────
+    @PostMapping
+    public ResponseEntity<?> initUpload(@RequestBody UploadInitRequestDto request) {
+        logger.info("Initializing chunked upload: {}", request.getTitle());
+        try {
+            UploadSession session = chunkedUploadService.init(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Serialization.mapUploadSessionToDto(session));
+        } catch (InvalidUploadException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (UploadTooLargeException e) {
+            return error(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        }
+    }
+
+    // ─── Upload Part ───────────────────────────────────────────────────────────────
+    @PutMapping("/{uploadId}/parts/{partNumber}")
+    public ResponseEntity<?> uploadPart(
+            @PathVariable String uploadId,
+            @PathVariable int partNumber,
+            @RequestParam("offset") long offset,
+            HttpServletRequest request
+    ) {
+        logger.debug("Receiving part {} of upload {} at offset {}", partNumber, uploadId, offset);
+        try {
+            UploadSession session = chunkedUploadService.writePart(uploadId, partNumber, offset,
+                    request.getInputStream(), request.getContentLengthLong());
+            UploadSessionDto dto = Serialization.mapUploadSessionToDto(session);
+            dto.setMissingParts(null);
+            return ResponseEntity.ok(dto);
+        } catch (UploadNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (InvalidUploadException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (UploadAbortedException e) {
+            // The client went away mid-part and will resume it; nothing failed on our side
+            logger.debug("Part {} of upload {} was aborted by the client", partNumber, uploadId, e);
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            logger.error("Failed to read part {} of upload {}", partNumber, uploadId, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Part upload failed");
+        }
+    }
+
+    // ─── Upload Status (for resuming) ──────────────────────────────────────────────
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(Serialization.mapUploadSessionToDto(chunkedUploadService.get(uploadId)));
+        } catch (UploadNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    // ─── Complete Upload ───────────────────────────────────────────────────────────
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) {
+        logger.info("Completing chunked upload {}", uploadId);
+        try {
+            Video video = chunkedUploadService.complete(uploadId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Serialization.mapVideoToDto(video));
+        } catch (UploadNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (InvalidUploadException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (TranscodeQueueFullException e) {
+            logger.warn("Deferring completion of upload {}: {}", uploadId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(message(e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<CustomMessage> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(message(message));
+    }
+
+    private CustomMessage message(String message) {
+        return CustomMessage.builder()
+                .message(message)
+                .success(false)
+                .build();
+    }
+}
@@ -1,37 +1,86 @@
 package com.CodeWithRishu.Video_Streaming_App.controller;
 
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
 import com.CodeWithRishu.Video_Streaming_App.dto.CustomMessage;
+import com.CodeWithRishu.Video_Streaming_App.dto.TrendingVideoDto;
 import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoPageDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoStatusDto;
 import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadTooLargeException;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
 import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPlaylists;
+import com.CodeWithRishu.Video_Streaming_App.utils.ByteRanges;
+import com.CodeWithRishu.Video_Streaming_App.utils.CacheValidators;
 import com.CodeWithRishu.Video_Streaming_App.utils.Serialization;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.*;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/videos")
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = {"X-Next-Cursor", HttpHeaders.LINK})
 public class VideoController {
 
     private static final Logger logger = LoggerFactory.getLogger(VideoController.class);
-    private static final long CHUNK_SIZE = 1024L * 1024L * 2L; // 2 MB
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int EXPORT_PAGE_SIZE = 200;
+    private static final MediaType PLAYLIST_TYPE = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+    private static final MediaType SEGMENT_TYPE = MediaType.parseMediaType("video/MP2T");
 
     private final VideoService videoService;
+    private final ObjectMapper objectMapper;
+    private final VideoMetrics videoMetrics;
+    private final ViewAnalytics viewAnalytics;
+    private final long openEndedChunkSize;
+    private final long maxRangeSize;
+    private final CacheControl segmentCacheControl;
+    private final CacheControl playlistCacheControl;
+    private final CacheControl thumbnailCacheControl;
 
-    public VideoController(VideoService videoService) {
+    public VideoController(VideoService videoService,
+                           ObjectMapper objectMapper,
+                           VideoMetrics videoMetrics,
+                           ViewAnalytics viewAnalytics,
+                           @Value("${video.stream.open-ended-chunk-size:8MB}") DataSize openEndedChunkSize,
+                           @Value("${video.stream.max-range-size:64MB}") DataSize maxRangeSize,
+                           @Value("${video.http.segment-max-age:365d}") Duration segmentMaxAge,
+                           @Value("${video.http.playlist-max-age:60s}") Duration playlistMaxAge,
+                           @Value("${video.http.thumbnail-max-age:1d}") Duration thumbnailMaxAge) {
         this.videoService = videoService;
+        this.objectMapper = objectMapper;
+        this.videoMetrics = videoMetrics;
+        this.viewAnalytics = viewAnalytics;
+        this.openEndedChunkSize = openEndedChunkSize.toBytes();
+        this.maxRangeSize = maxRangeSize.toBytes();
+        this.segmentCacheControl = CacheControl.maxAge(segmentMaxAge).cachePublic().immutable();
+        this.playlistCacheControl = CacheControl.maxAge(playlistMaxAge).cachePublic();
+        this.thumbnailCacheControl = CacheControl.maxAge(thumbnailMaxAge).cachePublic();
     }
 
     // ─── Video & Thumbnail Upload ─────────────────────────────────────────────────
@@ -49,7 +98,16 @@ public class VideoController {
         video.setTitle(title);
         video.setDescription(description);
 
-        Video saved = videoService.save(video, videoFile, thumbnailFile);
+        Video saved;
+        try {
+            saved = videoService.save(video, videoFile, thumbnailFile);
+        } catch (TranscodeQueueFullException e) {
+            logger.warn("Rejecting upload of '{}': {}", title, e.getMessage());
+            return tooManyRequests(e);
+        } catch (UploadTooLargeException e) {
+            logger.warn("Rejecting upload of '{}': {}", title, e.getMessage());
+            return payloadTooLarge(e);
+        }
         if (saved != null) {
             VideoMetaDataDto dto = Serialization.mapVideoToDto(saved);
             return ResponseEntity.status(HttpStatus.CREATED).body(dto);
@@ -63,20 +121,120 @@ public class VideoController {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(msg);
     }
 
-    // ─── List All Videos ───────────────────────────────────────────────────────────
+    // ─── Streaming Video Upload (raw request body, no multipart buffering) ─────────
+    @PostMapping("/stream")
+    public ResponseEntity<?> uploadVideoStream(
+            @RequestParam("title") String title,
+            @RequestParam("description") String description,
+            @RequestParam("fileName") String fileName,
+            HttpServletRequest request
+    ) {
+        logger.info("Streaming upload of video: {}", title);
+
+        Video video = new Video();
+        video.setVideoId(UUID.randomUUID().toString());
+        video.setTitle(title);
+        video.setDescription(description);
+
+        try {
+            Video saved = videoService.saveStream(video, request.getInputStream(), fileName,
+                    request.getContentType(), request.getContentLengthLong());
+            return ResponseEntity.status(HttpStatus.CREATED).body(Serialization.mapVideoToDto(saved));
+        } catch (TranscodeQueueFullException e) {
+            logger.warn("Rejecting upload of '{}': {}", title, e.getMessage());
+            return tooManyRequests(e);
+        } catch (UploadTooLargeException e) {
+            logger.warn("Rejecting upload of '{}': {}", title, e.getMessage());
+            return payloadTooLarge(e);
+        } catch (IOException e) {
+            logger.error("Failed to read upload stream for title: {}", title, e);
+            CustomMessage msg = CustomMessage.builder()
+                    .message("Video upload failed")
+                    .success(false)
+                    .build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(msg);
+        }
+    }
+
+    // ─── List Videos (keyset paginated) ───────────────────────────────────────────
     @GetMapping
-    public ResponseEntity<List<VideoMetaDataDto>> getAllVideos() {
-        logger.info("Fetching all videos");
-        List<VideoMetaDataDto> dtoList = videoService.getAll().stream()
-                .map(Serialization::mapVideoToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtoList);
+    public ResponseEntity<List<VideoMetaDataDto>> getAllVideos(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "order", defaultValue = "desc") String order
+    ) {
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        // A request without cursor or limit gets the first page, not the whole catalogue;
+        // clients follow the Link header or use /export for everything
+        logger.debug("Fetching videos page after cursor: {}", cursor);
+        VideoPageDto page;
+        try {
+            page = videoService.getPage(cursor, limit != null ? limit : DEFAULT_PAGE_SIZE, ascending);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+
+    // ─── Bulk Export (NDJSON, streamed page by page) ──────────────────────────────
+    @GetMapping(path = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportVideos(
+            @RequestParam(value = "order", defaultValue = "asc") String order
+    ) {
+        logger.info("Exporting video catalogue as NDJSON");
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.setRootValueSeparator(null);
+                String cursor = null;
+                do {
+                    VideoPageDto page = videoService.getPage(cursor, EXPORT_PAGE_SIZE, ascending);
+                    for (VideoMetaDataDto dto : page.getItems()) {
+                        objectMapper.writeValue(generator, dto);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // ─── Trending (decayed recent views) ──────────────────────────────────────────
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingVideoDto>> getTrendingVideos(
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(videoService.getTrending(limit));
+    }
+
+    // ─── Search (title / description) ─────────────────────────────────────────────
+    @GetMapping("/search")
+    public ResponseEntity<List<VideoMetaDataDto>> searchVideos(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        logger.debug("Searching videos for: {}", query);
+        return ResponseEntity.ok(videoService.search(query, limit));
     }
 
     // ─── Video Metadata ────────────────────────────────────────────────────────────
     @GetMapping("/{videoId}")
     public ResponseEntity<VideoMetaDataDto> getVideoMetadata(@PathVariable String videoId) {
-        logger.info("Fetching metadata for videoId: {}", videoId);
+        logger.debug("Fetching metadata for videoId: {}", videoId);
         Video video = videoService.get(videoId);
         if (video == null) {
             return ResponseEntity.notFound().build();
@@ -85,45 +243,146 @@ public class VideoController {
         return ResponseEntity.ok(Serialization.mapVideoToDto(video));
     }
 
-    // ─── Thumbnail Download ────────────────────────────────────────────────────────
+    // ─── Delete Video ──────────────────────────────────────────────────────────────
+    @DeleteMapping("/{videoId}")
+    public ResponseEntity<Void> deleteVideo(@PathVariable String videoId) {
+        logger.info("Deleting videoId: {}", videoId);
+        return videoService.delete(videoId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // ─── Transcode Status ──────────────────────────────────────────────────────────
+    @GetMapping("/{videoId}/status")
+    public ResponseEntity<VideoStatusDto> getVideoStatus(@PathVariable String videoId) {
+        return videoService.getTranscodeStatus(videoId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{videoId}/cancel")
+    public ResponseEntity<CustomMessage> cancelTranscode(@PathVariable String videoId) {
+        if (videoService.cancelTranscode(videoId)) {
+            logger.info("Cancel requested for transcode of videoId: {}", videoId);
+            return ResponseEntity.accepted().body(CustomMessage.builder()
+                    .message("Transcode cancelled")
+                    .success(true)
+                    .build());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(CustomMessage.builder()
+                .message("No queued or running transcode for videoId: " + videoId)
+                .success(false)
+                .build());
+    }
+
+    // ─── Thumbnail Download (?w= selects a pre-sized JPEG variant) ─────────────────
     @GetMapping("/thumbnail/{videoId}")
-    public ResponseEntity<Resource> getThumbnail(@PathVariable String videoId) {
-        logger.info("Fetching thumbnail for videoId: {}", videoId);
+    public ResponseEntity<Resource> getThumbnail(
+            @PathVariable String videoId,
+            @RequestParam(value = "w", required = false) Integer width,
+            WebRequest webRequest
+    ) {
+        logger.debug("Fetching thumbnail for videoId: {} at width {}", videoId, width);
+        Optional<Video> video = videoService.find(videoId);
+        if (video.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean variant = width != null && width > 0;
+        String etag = CacheValidators.thumbnailEtag(video.get(), variant ? width : 0);
+        long lastModified = CacheValidators.createdLastModified(video.get());
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, thumbnailCacheControl);
+        }
+
         try {
-            // The service is now responsible for finding the file and creating the Resource
-            Resource resource = videoService.getThumbnailResource(videoId);
-            String contentType = Files.probeContentType(resource.getFile().toPath());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
+            Resource resource = variant
+                    ? videoService.getThumbnailResource(videoId, width)
+                    : videoService.getThumbnailResource(videoId);
+            return validators(ResponseEntity.ok(), etag, lastModified)
+                    .cacheControl(thumbnailCacheControl)
+                    .contentType(variant ? MediaType.IMAGE_JPEG : thumbnailContentType(video.get(), resource))
                     .body(resource);
         } catch (FileNotFoundException e) {
-            logger.warn("Thumbnail not found for videoId: {}", videoId, e);
+            logger.debug("Thumbnail not found for videoId: {}", videoId, e);
             return ResponseEntity.notFound().build();
         } catch (IOException ex) {
-            logger.error("Error determining thumbnail content type", ex);
+            logger.error("Error generating thumbnail variant for videoId: {}", videoId, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     // ─── Byte‐Range Video Streaming ────────────────────────────────────────────────
-    @GetMapping("/stream/{videoId}")
-    public ResponseEntity<ResourceRegion> streamVideo(
+    // Full and ranged responses are separate handlers so each declares a concrete body type:
+    // ResourceRegionHttpMessageConverter is only chosen when the declared type is ResourceRegion(s)
+    @GetMapping(path = "/stream/{videoId}", headers = "!" + HttpHeaders.RANGE)
+    public ResponseEntity<Resource> streamVideo(@PathVariable String videoId) {
+        logger.debug("Streaming video for videoId: {}", videoId);
+        try {
+            // The service is now responsible for finding the file and creating the Resource
+            Resource videoResource = videoService.getVideoResource(videoId);
+            long contentLength = videoResource.contentLength();
+            String etag = videoService.find(videoId).map(CacheValidators::sourceEtag).orElse(null);
+
+            videoMetrics.recordBytesServed(videoId, "source", contentLength);
+            viewAnalytics.record(videoId, contentLength, true);
+            return validators(ResponseEntity.ok(), etag, videoResource.lastModified())
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(videoType(videoResource))
+                    .contentLength(contentLength)
+                    .body(videoResource);
+        } catch (FileNotFoundException e) {
+            logger.debug("Video file not found for videoId: {}", videoId, e);
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("Error streaming video", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping(path = "/stream/{videoId}", headers = HttpHeaders.RANGE)
+    public ResponseEntity<List<ResourceRegion>> streamVideoRange(
             @PathVariable String videoId,
-            @RequestHeader HttpHeaders headers
+            @RequestHeader HttpHeaders headers,
+            HttpServletResponse response
     ) {
-        logger.info("Streaming video for videoId: {}", videoId);
+        logger.debug("Streaming video range for videoId: {}", videoId);
         try {
-            // The service is now responsible for finding the file and creating the Resource
             Resource videoResource = videoService.getVideoResource(videoId);
-            ResourceRegion region = resourceRegion(videoResource, headers);
-            MediaType mediaType = MediaTypeFactory.getMediaType(videoResource)
-                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            long contentLength = videoResource.contentLength();
+            long lastModified = videoResource.lastModified();
+            String etag = videoService.find(videoId).map(CacheValidators::sourceEtag).orElse(null);
+            MediaType mediaType = videoType(videoResource);
+
+            List<HttpRange> ranges = requestedRanges(headers);
+            if (ranges.isEmpty() || !ByteRanges.ifRangeMatches(headers, etag, lastModified)) {
+                videoMetrics.recordBytesServed(videoId, "source", contentLength);
+                viewAnalytics.record(videoId, contentLength, true);
+                writeFullVideo(response, videoResource, mediaType, etag, lastModified);
+                return null;
+            }
 
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+            List<ResourceRegion> regions;
+            Timer.Sample sample = videoMetrics.startTimer();
+            try {
+                regions = ByteRanges.toRegions(videoResource, ranges, contentLength, openEndedChunkSize, maxRangeSize);
+                videoMetrics.recordRegions(sample, regions.size());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength)
+                        .build();
+            }
+
+            long served = regions.stream().mapToLong(ResourceRegion::getCount).sum();
+            videoMetrics.recordBytesServed(videoId, "source", served);
+            // Players probe with bytes=0- when playback starts; later ranges are seeks and buffering
+            viewAnalytics.record(videoId, served, regions.get(0).getPosition() == 0);
+            // A single region gets a Content-Range header; several are written as multipart/byteranges
+            return validators(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT), etag, lastModified)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .contentType(mediaType)
-                    .body(region);
+                    .body(regions);
         } catch (FileNotFoundException e) {
-            logger.warn("Video file not found for videoId: {}", videoId, e);
+            logger.debug("Video file not found for videoId: {}", videoId, e);
             return ResponseEntity.notFound().build();
         } catch (IOException e) {
             logger.error("Error streaming video", e);
@@ -131,18 +390,19 @@ public class VideoController {
         }
     }
 
-    // ─── HLS Master Playlist ───────────────────────────────────────────────────────
+    // ─── HLS Master Playlist (renditions live under /{videoId}/{rendition}/) ────────
     @GetMapping(path = "/{videoId}/master.m3u8", produces = "application/vnd.apple.mpegurl")
-    public ResponseEntity<Resource> serveMasterPlaylist(@PathVariable String videoId) {
+    public ResponseEntity<Resource> serveMasterPlaylist(@PathVariable String videoId, WebRequest webRequest) {
         logger.debug("Serving HLS master playlist for videoId: {}", videoId);
         try {
-            Resource resource = videoService.getHlsResource(videoId, "master.m3u8");
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType("application/vnd.apple.mpegurl"))
-                    .body(resource);
+            return hlsResponse(videoId, HlsPlaylists.MASTER_PLAYLIST, PLAYLIST_TYPE, webRequest,
+                    () -> videoService.getHlsResource(videoId, HlsPlaylists.MASTER_PLAYLIST));
         } catch (FileNotFoundException e) {
-            logger.warn("HLS master playlist not found for videoId: {}", videoId, e);
+            logger.debug("HLS master playlist not found for videoId: {}", videoId, e);
             return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("Error serving HLS master playlist", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
@@ -150,19 +410,15 @@ public class VideoController {
     @GetMapping(path = "/{videoId}/{segmentName:.+\\.ts}", produces = "video/MP2T")
     public ResponseEntity<Resource> serveHlsSegment(
             @PathVariable String videoId,
-            @PathVariable String segmentName
+            @PathVariable String segmentName,
+            WebRequest webRequest
     ) {
         logger.debug("Serving HLS segment {} for videoId: {}", segmentName, videoId);
         try {
-            Resource resource = videoService.getHlsResource(videoId, segmentName);
-            long len = resource.contentLength();
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(len))
-                    .contentType(MediaType.parseMediaType("video/MP2T"))
-                    .body(resource);
+            return hlsResponse(videoId, segmentName, SEGMENT_TYPE, webRequest,
+                    () -> videoService.getHlsResource(videoId, segmentName));
         } catch (FileNotFoundException e) {
-            logger.warn("HLS segment {} not found for videoId: {}", segmentName, videoId, e);
+            logger.debug("HLS segment {} not found for videoId: {}", segmentName, videoId, e);
             return ResponseEntity.notFound().build();
         } catch (IOException e) {
             logger.error("Error serving HLS segment", e);
@@ -170,19 +426,162 @@ public class VideoController {
         }
     }
 
-    private ResourceRegion resourceRegion(Resource video, HttpHeaders headers) throws IOException {
-        long contentLength = video.contentLength();
-        long start = 0;
-        long length = Math.min(CHUNK_SIZE, contentLength);
+    // ─── HLS Rendition Playlist ────────────────────────────────────────────────────
+    @GetMapping(path = "/{videoId}/{rendition:[A-Za-z0-9_-]+}/{playlistName:[A-Za-z0-9_-]+\\.m3u8}", produces = "application/vnd.apple.mpegurl")
+    public ResponseEntity<Resource> serveRenditionPlaylist(
+            @PathVariable String videoId,
+            @PathVariable String rendition,
+            @PathVariable String playlistName,
+            WebRequest webRequest
+    ) {
+        logger.debug("Serving HLS playlist {}/{} for videoId: {}", rendition, playlistName, videoId);
+        try {
+            return hlsResponse(videoId, rendition + "/" + playlistName, PLAYLIST_TYPE, webRequest,
+                    () -> videoService.getHlsResource(videoId, rendition, playlistName));
+        } catch (FileNotFoundException e) {
+            logger.debug("HLS playlist {}/{} not found for videoId: {}", rendition, playlistName, videoId, e);
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("Error serving HLS playlist", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-        List<HttpRange> ranges = headers.getRange();
-        if (!ranges.isEmpty()) {
-            HttpRange range = ranges.get(0);
-            start = range.getRangeStart(contentLength);
-            long end = range.getRangeEnd(contentLength);
-            length = Math.min(CHUNK_SIZE, end - start + 1);
+    // ─── HLS Rendition Segment ─────────────────────────────────────────────────────
+    @GetMapping(path = "/{videoId}/{rendition:[A-Za-z0-9_-]+}/{segmentName:[A-Za-z0-9_-]+\\.ts}", produces = "video/MP2T")
+    public ResponseEntity<Resource> serveRenditionSegment(
+            @PathVariable String videoId,
+            @PathVariable String rendition,
+            @PathVariable String segmentName,
+            WebRequest webRequest
+    ) {
+        logger.debug("Serving HLS segment {}/{} for videoId: {}", rendition, segmentName, videoId);
+        try {
+            return hlsResponse(videoId, rendition + "/" + segmentName, SEGMENT_TYPE, webRequest,
+                    () -> videoService.getHlsResource(videoId, rendition, segmentName));
+        } catch (FileNotFoundException e) {
+            logger.debug("HLS segment {}/{} not found for videoId: {}", rendition, segmentName, videoId, e);
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("Error serving HLS segment", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+    }
+
+    // Validators come from the version stamped on the video when its HLS output was published, so
+    // a revalidation is answered from the metadata cache without opening the file. Until then the
+    // output may still change and clients must revalidate every time.
+    private ResponseEntity<Resource> hlsResponse(String videoId, String relativePath, MediaType mediaType,
+                                                 WebRequest webRequest, HlsLookup lookup) throws IOException {
+        Optional<Video> video = videoService.find(videoId);
+        String etag = video.map(v -> CacheValidators.hlsEtag(v, relativePath)).orElse(null);
+        long lastModified = video.map(CacheValidators::hlsLastModified).orElse(-1L);
+        String version = video.map(Video::getHlsVersion).orElse(null);
+        // Segments are only immutable under the versioned URIs the current playlists hand out
+        CacheControl cacheControl = etag == null ? CacheControl.noCache()
+                : SEGMENT_TYPE.equals(mediaType) && version.equals(webRequest.getParameter(HlsPlaylists.VERSION_PARAM))
+                ? segmentCacheControl : playlistCacheControl;
+
+        if (etag != null && webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, cacheControl);
+        }
+
+        Resource resource = lookup.get();
+        if (PLAYLIST_TYPE.equals(mediaType) && version != null) {
+            resource = HlsPlaylists.versionSegmentUris(resource, version);
+        }
+        videoMetrics.recordBytesServed(videoId, VideoMetrics.renditionOf(relativePath), resource.contentLength());
+        if (SEGMENT_TYPE.equals(mediaType)) {
+            viewAnalytics.record(videoId, resource.contentLength(), ViewAnalytics.isFirstSegment(relativePath));
+        }
+        ResponseEntity.BodyBuilder response = validators(ResponseEntity.ok(), etag, lastModified)
+                .cacheControl(cacheControl)
+                .contentType(mediaType)
+                .contentLength(resource.contentLength());
+        if (SEGMENT_TYPE.equals(mediaType)) {
+            response.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        }
+        return response.body(resource);
+    }
+
+    // Legacy rows have no stored type; the file name decides, without probing the file
+    private static MediaType videoType(Resource videoResource) {
+        return MediaTypeFactory.getMediaType(videoResource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * A Range request that must be answered with the whole file (stale If-Range or an unparsable
+     * header). Written directly, since the ranged handler's declared body type is ResourceRegions.
+     */
+    private static void writeFullVideo(HttpServletResponse response, Resource videoResource, MediaType mediaType,
+                                       String etag, long lastModified) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (lastModified > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(mediaType.toString());
+        response.setContentLengthLong(videoResource.contentLength());
+        try (InputStream in = videoResource.getInputStream()) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    private static MediaType thumbnailContentType(Video video, Resource resource) {
+        if (video.getThumbnailContentType() != null) {
+            return MediaType.parseMediaType(video.getThumbnailContentType());
+        }
+        return MediaTypeFactory.getMediaType(resource).orElse(MediaType.IMAGE_JPEG);
+    }
+
+    private static ResponseEntity<Resource> notModified(String etag, long lastModified, CacheControl cacheControl) {
+        return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder builder, String etag, long lastModified) {
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (lastModified > 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+
+    private ResponseEntity<CustomMessage> tooManyRequests(TranscodeQueueFullException e) {
+        CustomMessage msg = CustomMessage.builder()
+                .message(e.getMessage())
+                .success(false)
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(msg);
+    }
+
+    private ResponseEntity<CustomMessage> payloadTooLarge(UploadTooLargeException e) {
+        CustomMessage msg = CustomMessage.builder()
+                .message(e.getMessage())
+                .success(false)
+                .build();
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(msg);
+    }
+
+    // A syntactically invalid Range header is ignored, per RFC 9110
+    private List<HttpRange> requestedRanges(HttpHeaders headers) {
+        try {
+            return headers.getRange();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
 
-        return new ResourceRegion(video, start, length);
+    @FunctionalInterface
+    private interface HlsLookup {
+        Resource get() throws FileNotFoundException;
     }
-}
\ No newline at end of file
+}
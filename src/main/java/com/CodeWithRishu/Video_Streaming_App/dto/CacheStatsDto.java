@@ -0,0 +1,20 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long entries;
+    private long sizeBytes;
+    private long capacityBytes;
+    private double hitRatio;
+}
@@ -0,0 +1,23 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HlsStoreStatsDto {
+    private int indexedOutputs;
+    private long indexedFiles;
+    // hlsKey -> segments its playlists reference that are not on disk
+    private Map<String, List<String>> broken;
+    private long removedOutputs;
+    private Instant lastReconciledAt;
+}
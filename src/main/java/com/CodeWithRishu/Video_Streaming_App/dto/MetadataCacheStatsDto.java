@@ -0,0 +1,19 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetadataCacheStatsDto {
+    private long l1Hits;
+    private long l2Hits;
+    private long misses;
+    private long l2Errors;
+    private long l1Entries;
+    private double hitRatio;
+}
@@ -0,0 +1,22 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingVideoDto {
+    private String id;
+    private String title;
+    private String contentType;
+    private Instant createdAt;
+    private long viewCount;
+    private long bytesWatched;
+    private double score;
+}
@@ -0,0 +1,19 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadInitRequestDto {
+    private String title;
+    private String description;
+    private String fileName;
+    private String contentType;
+    private long totalSize;
+    private Long partSize;
+}
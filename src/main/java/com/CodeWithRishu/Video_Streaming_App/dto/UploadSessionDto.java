@@ -0,0 +1,23 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String uploadId;
+    private String status;
+    private long totalSize;
+    private long partSize;
+    private int partCount;
+    private int receivedCount;
+    private List<Integer> missingParts;
+    private String videoId;
+}
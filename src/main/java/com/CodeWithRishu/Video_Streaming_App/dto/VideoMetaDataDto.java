@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,4 +16,5 @@ public class VideoMetaDataDto {
     private String title;
     private String description;
     private String contentType;
+    private Instant createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.CodeWithRishu.Video_Streaming_App.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoStatusDto {
+    private String videoId;
+    private String status;
+    private int attempts;
+    private String lastError;
+    private Instant updatedAt;
+    // Only reported while the job is running
+    private Double progressPercent;
+    private Double fps;
+    private Double speed;
+}
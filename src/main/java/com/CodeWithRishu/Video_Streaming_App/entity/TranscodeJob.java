@@ -0,0 +1,46 @@
+package com.CodeWithRishu.Video_Streaming_App.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "yt_transcode_jobs", indexes = {
+        @Index(name = "idx_transcode_jobs_status_next", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_transcode_jobs_video", columnList = "videoId")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TranscodeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String videoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TranscodeStatus status;
+
+    private int attempts;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    private Instant nextAttemptAt;
+
+    // Node running the job and how long its claim holds without a heartbeat
+    @Column(length = 128)
+    private String owner;
+
+    private Instant leaseExpiresAt;
+}
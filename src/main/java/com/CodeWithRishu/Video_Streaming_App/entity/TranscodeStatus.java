@@ -0,0 +1,9 @@
+package com.CodeWithRishu.Video_Streaming_App.entity;
+
+public enum TranscodeStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
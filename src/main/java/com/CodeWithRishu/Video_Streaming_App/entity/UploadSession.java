@@ -0,0 +1,54 @@
+package com.CodeWithRishu.Video_Streaming_App.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.BitSet;
+
+@Entity
+@Table(name = "yt_upload_sessions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+    @Id
+    private String uploadId;
+
+    private String title;
+
+    private String description;
+
+    private String contentType;
+
+    private String fileName;
+
+    private long totalSize;
+
+    private long partSize;
+
+    private int partCount;
+
+    @Lob
+    private byte[] receivedParts;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadStatus status;
+
+    private String videoId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    public BitSet receivedPartSet() {
+        return receivedParts == null ? new BitSet(partCount) : BitSet.valueOf(receivedParts);
+    }
+
+    public long expectedPartLength(int partNumber) {
+        return Math.min(partSize, totalSize - partNumber * partSize);
+    }
+}
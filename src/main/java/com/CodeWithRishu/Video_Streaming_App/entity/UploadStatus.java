@@ -0,0 +1,6 @@
+package com.CodeWithRishu.Video_Streaming_App.entity;
+
+public enum UploadStatus {
+    OPEN,
+    COMPLETED
+}
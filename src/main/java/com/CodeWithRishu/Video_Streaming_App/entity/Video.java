@@ -1,13 +1,16 @@
 package com.CodeWithRishu.Video_Streaming_App.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 @Entity
-@Table(name = "yt_videos")
+@Table(name = "yt_videos", indexes = {
+        @Index(name = "idx_videos_created_at", columnList = "createdAt, videoId")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,4 +30,40 @@ public class Video {
     private String filePath;
 
     private String thumbnailUrl;
+
+    private String thumbnailContentType;
+
+    private Long fileSize;
+
+    @Column(length = 64)
+    private String contentHash;
+
+    private Instant createdAt;
+
+    // Directory under the HLS root holding this video's output; shared by deduplicated uploads
+    private String hlsKey;
+
+    @Column(length = 32)
+    private String hlsVersion;
+
+    private Instant hlsPublishedAt;
+
+    // Written only by ViewAnalytics' batched increments, never by saving the entity
+    @Column(nullable = false, updatable = false)
+    private long viewCount;
+
+    @Column(nullable = false, updatable = false)
+    private long bytesWatched;
+
+    public String resolveHlsKey() {
+        return hlsKey != null ? hlsKey : videoId;
+    }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            // MySQL DATETIME(6) keeps microseconds; truncating here keeps keyset cursors exact
+            createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.CodeWithRishu.Video_Streaming_App.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * One stored upload, keyed by the SHA-256 of its bytes. Every {@link Video} with the same content
+ * shares the file and the HLS output under {@code hlsKey}; the blob is removed when the last of
+ * them is deleted.
+ */
+@Entity
+@Table(name = "yt_video_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoBlob implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String filePath;
+
+    private long size;
+
+    private int refCount;
+
+    @Column(nullable = false)
+    private String hlsKey;
+
+    private Instant createdAt;
+
+    // Always insert, never merge: a concurrent upload of the same bytes must fail on the primary
+    // key instead of silently overwriting the other blob's reference count
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return sha256;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        fresh = false;
+    }
+}
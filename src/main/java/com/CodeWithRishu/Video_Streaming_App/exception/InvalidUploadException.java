@@ -0,0 +1,8 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class InvalidUploadException extends RuntimeException {
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class TranscodeCancelledException extends RuntimeException {
+
+    public TranscodeCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class TranscodeQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TranscodeQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
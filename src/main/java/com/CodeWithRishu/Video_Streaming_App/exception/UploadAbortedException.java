@@ -0,0 +1,8 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class UploadAbortedException extends RuntimeException {
+
+    public UploadAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
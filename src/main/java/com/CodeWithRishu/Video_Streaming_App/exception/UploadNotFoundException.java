@@ -0,0 +1,8 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class UploadNotFoundException extends RuntimeException {
+
+    public UploadNotFoundException(String message) {
+        super(message);
+    }
+}
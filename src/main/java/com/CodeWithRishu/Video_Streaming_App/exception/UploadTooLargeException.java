@@ -0,0 +1,8 @@
+package com.CodeWithRishu.Video_Streaming_App.exception;
+
+public class UploadTooLargeException extends RuntimeException {
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,216 @@
+package com.CodeWithRishu.Video_Streaming_App.impl;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadInitRequestDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadStatus;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.InvalidUploadException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadNotFoundException;
+import com.CodeWithRishu.Video_Streaming_App.repository.UploadSessionRepository;
+import com.CodeWithRishu.Video_Streaming_App.service.ChunkedUploadService;
+import com.CodeWithRishu.Video_Streaming_App.service.FileStorageService;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Resumable uploads: the target file is preallocated at init, every part is written at its own
+ * offset, and the received-part bitmap is persisted so a client can ask what is still missing.
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final VideoService videoService;
+
+    private final long defaultPartSize;
+    private final long minPartSize;
+    private final long maxPartSize;
+    private final Duration sessionTtl;
+
+    // Parts are written in parallel under the read lock; the bitmap update, completion and expiry
+    // take the write lock, so the file is never hashed or removed while a part is being written
+    private final ConcurrentMap<String, ReentrantReadWriteLock> sessionLocks = new ConcurrentHashMap<>();
+
+    public ChunkedUploadServiceImpl(UploadSessionRepository uploadSessionRepository,
+                                    FileStorageService fileStorageService,
+                                    VideoService videoService,
+                                    @Value("${file.upload.part-size:8MB}") DataSize defaultPartSize,
+                                    @Value("${file.upload.min-part-size:1MB}") DataSize minPartSize,
+                                    @Value("${file.upload.max-part-size:64MB}") DataSize maxPartSize,
+                                    @Value("${file.upload.session-ttl:24h}") Duration sessionTtl) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileStorageService = fileStorageService;
+        this.videoService = videoService;
+        this.defaultPartSize = defaultPartSize.toBytes();
+        this.minPartSize = minPartSize.toBytes();
+        this.maxPartSize = maxPartSize.toBytes();
+        this.sessionTtl = sessionTtl;
+    }
+
+    @Override
+    public UploadSession init(UploadInitRequestDto request) {
+        if (!StringUtils.hasText(request.getTitle())) {
+            throw new InvalidUploadException("title is required");
+        }
+        if (request.getTotalSize() <= 0) {
+            throw new InvalidUploadException("totalSize must be positive");
+        }
+        long partSize = request.getPartSize() == null ? defaultPartSize : request.getPartSize();
+        if (partSize < minPartSize || partSize > maxPartSize) {
+            throw new InvalidUploadException("partSize must be between " + minPartSize + " and " + maxPartSize + " bytes");
+        }
+
+        long partCount = (request.getTotalSize() + partSize - 1) / partSize;
+        if (partCount > Integer.MAX_VALUE) {
+            throw new InvalidUploadException("partSize is too small for an upload of this size");
+        }
+
+        String fileName = fileStorageService.allocate(request.getFileName(), request.getTotalSize());
+
+        Instant now = Instant.now();
+        UploadSession session = UploadSession.builder()
+                .uploadId(UUID.randomUUID().toString())
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .contentType(request.getContentType())
+                .fileName(fileName)
+                .totalSize(request.getTotalSize())
+                .partSize(partSize)
+                .partCount((int) partCount)
+                .status(UploadStatus.OPEN)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        UploadSession saved = uploadSessionRepository.save(session);
+        logger.info("Opened upload {} for '{}' ({} bytes in {} parts)", saved.getUploadId(), saved.getTitle(), saved.getTotalSize(), partCount);
+        return saved;
+    }
+
+    @Override
+    public UploadSession writePart(String uploadId, int partNumber, long offset, InputStream body, long contentLength) {
+        long written = withLock(uploadId, false, () -> {
+            UploadSession session = get(uploadId);
+            requireOpen(session);
+            return writeChecked(session, partNumber, offset, body, contentLength);
+        });
+
+        return withLock(uploadId, true, () -> {
+            UploadSession current = get(uploadId);
+            // A completion that ran once this part was written has already hashed the file without it
+            requireOpen(current);
+            BitSet received = current.receivedPartSet();
+            received.set(partNumber);
+            current.setReceivedParts(received.toByteArray());
+            current.setUpdatedAt(Instant.now());
+            return uploadSessionRepository.save(current);
+        });
+    }
+
+    private long writeChecked(UploadSession session, int partNumber, long offset, InputStream body, long contentLength) {
+        if (partNumber < 0 || partNumber >= session.getPartCount()) {
+            throw new InvalidUploadException("Part " + partNumber + " is out of range 0.." + (session.getPartCount() - 1));
+        }
+        if (offset != partNumber * session.getPartSize()) {
+            throw new InvalidUploadException("Part " + partNumber + " must start at offset " + partNumber * session.getPartSize());
+        }
+        long expected = session.expectedPartLength(partNumber);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new InvalidUploadException("Part " + partNumber + " must be " + expected + " bytes, got " + contentLength);
+        }
+
+        long written = fileStorageService.writeAt(session.getFileName(), offset, body, expected);
+        if (written != expected) {
+            throw new InvalidUploadException("Part " + partNumber + " ended after " + written + " of " + expected + " bytes");
+        }
+        return written;
+    }
+
+    private static void requireOpen(UploadSession session) {
+        if (session.getStatus() != UploadStatus.OPEN) {
+            throw new InvalidUploadException("Upload " + session.getUploadId() + " is already " + session.getStatus());
+        }
+    }
+
+    @Override
+    public UploadSession get(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new UploadNotFoundException("Upload not found with id: " + uploadId));
+    }
+
+    @Override
+    public Video complete(String uploadId) {
+        // A completion rejected by a full transcode queue leaves the session open for a retry
+        return withLock(uploadId, true, () -> {
+            UploadSession session = get(uploadId);
+            if (session.getStatus() == UploadStatus.COMPLETED) {
+                return videoService.get(session.getVideoId());
+            }
+            int received = session.receivedPartSet().cardinality();
+            if (received != session.getPartCount()) {
+                throw new InvalidUploadException("Upload " + uploadId + " is missing "
+                        + (session.getPartCount() - received) + " of " + session.getPartCount() + " parts");
+            }
+
+            FileStorageService.StoredFile storedVideo = fileStorageService.finish(session.getFileName());
+
+            Video video = new Video();
+            video.setVideoId(UUID.randomUUID().toString());
+            video.setTitle(session.getTitle());
+            video.setDescription(session.getDescription());
+            Video saved = videoService.saveUploaded(video, storedVideo, session.getContentType());
+
+            session.setStatus(UploadStatus.COMPLETED);
+            session.setVideoId(saved.getVideoId());
+            session.setUpdatedAt(Instant.now());
+            uploadSessionRepository.save(session);
+            sessionLocks.remove(uploadId);
+
+            logger.info("Completed upload {} as videoId: {}", uploadId, saved.getVideoId());
+            return saved;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${file.upload.cleanup-interval:1h}")
+    public void expireAbandonedUploads() {
+        for (UploadSession session : uploadSessionRepository.findByStatusAndUpdatedAtBefore(UploadStatus.OPEN, Instant.now().minus(sessionTtl))) {
+            logger.info("Expiring abandoned upload {} last touched at {}", session.getUploadId(), session.getUpdatedAt());
+            withLock(session.getUploadId(), true, () -> {
+                fileStorageService.discard(session.getFileName());
+                uploadSessionRepository.delete(session);
+                return null;
+            });
+            sessionLocks.remove(session.getUploadId());
+        }
+    }
+
+    private <T> T withLock(String uploadId, boolean exclusive, Supplier<T> action) {
+        ReentrantReadWriteLock sessionLock = sessionLocks.computeIfAbsent(uploadId, id -> new ReentrantReadWriteLock());
+        Lock lock = exclusive ? sessionLock.writeLock() : sessionLock.readLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.CodeWithRishu.Video_Streaming_App.impl;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeCancelledException;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.service.TranscodeJobService;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoProcessingService;
+import com.CodeWithRishu.Video_Streaming_App.transcode.TranscodeProgress;
+import com.CodeWithRishu.Video_Streaming_App.transcode.Transcoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable transcoding queue. Jobs live in {@code yt_transcode_jobs}; a fixed pool of
+ * workers pulls due QUEUED jobs from the table, so nothing is lost on restart.
+ *
+ * <p>Several nodes may share the table. A claim records the node and a lease that a heartbeat
+ * keeps extending, and only jobs whose lease lapsed (or that this node held before restarting)
+ * are put back in the queue.
+ */
+@Service
+public class TranscodeJobServiceImpl implements TranscodeJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranscodeJobServiceImpl.class);
+    private static final String INTERRUPTED_ERROR = "Node stopped while transcoding on every attempt";
+
+    private final TranscodeJobRepository transcodeJobRepository;
+    private final VideoProcessingService videoProcessingService;
+    private final Transcoder transcoder;
+
+    private final int workers;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final String nodeId;
+    private final Duration lease;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Not a synchronized method: dispatch queries the database and would pin a virtual thread's carrier
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private ThreadPoolExecutor executor;
+
+    public TranscodeJobServiceImpl(TranscodeJobRepository transcodeJobRepository,
+                                   VideoProcessingService videoProcessingService,
+                                   Transcoder transcoder,
+                                   @Value("${video.transcode.workers:0}") int workers,
+                                   @Value("${video.transcode.queue-capacity:100}") int queueCapacity,
+                                   @Value("${video.transcode.max-attempts:3}") int maxAttempts,
+                                   @Value("${video.transcode.retry-backoff:30s}") Duration retryBackoff,
+                                   @Value("${video.transcode.node-id:}") String nodeId,
+                                   @Value("${video.transcode.lease:2m}") Duration lease) {
+        this.transcodeJobRepository = transcodeJobRepository;
+        this.videoProcessingService = videoProcessingService;
+        this.transcoder = transcoder;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : defaultNodeId();
+        this.lease = lease;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // The hand-off queue is only as deep as the pool; the real backlog stays in the database.
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transcode-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Transcode worker pool started with {} workers, queue capacity {} on node {}", workers, queueCapacity, nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public TranscodeJob submit(String videoId) {
+        Instant now = Instant.now();
+        TranscodeJob job = TranscodeJob.builder()
+                .videoId(videoId)
+                .status(TranscodeStatus.QUEUED)
+                .createdAt(now)
+                .updatedAt(now)
+                .nextAttemptAt(now)
+                .build();
+        TranscodeJob saved = transcodeJobRepository.save(job);
+        logger.info("Queued transcode job {} for videoId: {}", saved.getId(), videoId);
+
+        dispatch();
+        return saved;
+    }
+
+    @Override
+    public void ensureCapacity() {
+        if (getQueueDepth() >= queueCapacity) {
+            throw new TranscodeQueueFullException("Transcode queue is full, please retry later",
+                    Math.max(1, retryBackoff.toSeconds()));
+        }
+    }
+
+    @Override
+    public Optional<TranscodeJob> getLatestJob(String videoId) {
+        return transcodeJobRepository.findFirstByVideoIdOrderByCreatedAtDesc(videoId);
+    }
+
+    @Override
+    public boolean hasPendingJob(String hlsKey) {
+        return transcodeJobRepository.existsPendingForHlsKey(hlsKey);
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return transcodeJobRepository.countByStatus(TranscodeStatus.QUEUED);
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    @Override
+    public Optional<TranscodeProgress> getProgress(TranscodeJob job) {
+        if (job.getStatus() != TranscodeStatus.RUNNING) {
+            return Optional.empty();
+        }
+        return transcoder.progress(job.getVideoId());
+    }
+
+    @Override
+    public boolean cancel(String videoId) {
+        Optional<TranscodeJob> latest = getLatestJob(videoId);
+        if (latest.isEmpty()) {
+            return false;
+        }
+        TranscodeJob job = latest.get();
+        if (transcodeJobRepository.cancelQueued(job.getId(), Instant.now()) == 1) {
+            logger.info("Cancelled queued transcode job {} for videoId: {}", job.getId(), videoId);
+            return true;
+        }
+        // Claimed in the meantime or already running: stop the encoder and let the worker record it
+        Optional<TranscodeJob> running = transcodeJobRepository.findById(job.getId())
+                .filter(current -> current.getStatus() == TranscodeStatus.RUNNING);
+        if (running.isEmpty()) {
+            return false;
+        }
+        if (!nodeId.equals(running.get().getOwner())) {
+            logger.info("Transcode job {} for videoId: {} runs on node {}, not on {}", job.getId(), videoId,
+                    running.get().getOwner(), nodeId);
+            return false;
+        }
+        // A job claimed a moment ago has no session yet; the transcoder holds the cancel for it
+        transcoder.cancel(videoId);
+        logger.info("Cancelled running transcode job {} for videoId: {}", job.getId(), videoId);
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        // Nothing runs here yet, so every job still claimed by this node was interrupted by shutdown
+        Instant now = Instant.now();
+        int owned = transcodeJobRepository.requeueOwned(nodeId, now, maxAttempts);
+        if (owned > 0) {
+            logger.warn("Re-queued {} transcode jobs interrupted by the shutdown of node {}", owned, nodeId);
+        }
+        int exhausted = transcodeJobRepository.failOwnedExhausted(nodeId, now, maxAttempts, INTERRUPTED_ERROR);
+        if (exhausted > 0) {
+            logger.error("Failed {} transcode jobs interrupted on node {} on each of their {} attempts", exhausted, nodeId, maxAttempts);
+        }
+        heartbeat();
+        dispatch();
+    }
+
+    /**
+     * Renews the lease on this node's running jobs and re-queues jobs of nodes that stopped
+     * renewing theirs.
+     */
+    @Scheduled(fixedDelayString = "${video.transcode.heartbeat-interval:30s}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        if (!inFlight.isEmpty()) {
+            transcodeJobRepository.renewLeases(List.copyOf(inFlight), nodeId, now.plus(lease));
+        }
+        int expired = transcodeJobRepository.requeueExpired(now, maxAttempts);
+        if (expired > 0) {
+            logger.warn("Re-queued {} transcode jobs whose lease expired", expired);
+        }
+        int exhausted = transcodeJobRepository.failExpiredExhausted(now, maxAttempts, INTERRUPTED_ERROR);
+        if (exhausted > 0) {
+            logger.error("Failed {} transcode jobs whose lease expired on each of their {} attempts", exhausted, maxAttempts);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${video.transcode.poll-interval:2s}")
+    public void dispatch() {
+        dispatchLock.lock();
+        try {
+            int free = executor.getQueue().remainingCapacity() + workers - executor.getActiveCount();
+            if (free <= 0 || executor.isShutdown()) {
+                return;
+            }
+
+            List<TranscodeJob> due = transcodeJobRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                    TranscodeStatus.QUEUED, Instant.now(), Limit.of(free));
+            for (TranscodeJob job : due) {
+                Long jobId = job.getId();
+                if (!inFlight.add(jobId)) {
+                    continue;
+                }
+                try {
+                    executor.execute(() -> run(jobId));
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(jobId);
+                    break;
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            Instant claimedAt = Instant.now();
+            if (transcodeJobRepository.claim(jobId, nodeId, claimedAt, claimedAt.plus(lease)) == 0) {
+                return;
+            }
+            TranscodeJob job = transcodeJobRepository.findById(jobId).orElseThrow();
+            logger.info("Starting transcode job {} (attempt {}) for videoId: {}", jobId, job.getAttempts(), job.getVideoId());
+
+            try {
+                videoProcessingService.transcode(job.getVideoId());
+                job.setStatus(TranscodeStatus.DONE);
+                job.setLastError(null);
+                logger.info("Transcode job {} finished for videoId: {}", jobId, job.getVideoId());
+            } catch (TranscodeCancelledException e) {
+                logger.info("Transcode job {} cancelled for videoId: {}", jobId, job.getVideoId());
+                job.setStatus(TranscodeStatus.CANCELLED);
+                job.setLastError(e.getMessage());
+            } catch (Exception e) {
+                fail(job, e);
+            }
+            if (transcodeJobRepository.complete(jobId, nodeId, job.getStatus(), job.getLastError(),
+                    job.getNextAttemptAt(), Instant.now()) == 0) {
+                logger.warn("Lease on transcode job {} lapsed and it was taken over, dropping its {} outcome",
+                        jobId, job.getStatus());
+            }
+        } catch (Exception e) {
+            logger.error("Could not update transcode job {}", jobId, e);
+        } finally {
+            inFlight.remove(jobId);
+        }
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node-" + ProcessHandle.current().pid();
+        }
+    }
+
+    private void fail(TranscodeJob job, Exception e) {
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        job.setLastError(error.length() > 1024 ? error.substring(0, 1024) : error);
+
+        if (job.getAttempts() >= maxAttempts) {
+            logger.error("Transcode job {} for videoId: {} failed permanently after {} attempts",
+                    job.getId(), job.getVideoId(), job.getAttempts(), e);
+            job.setStatus(TranscodeStatus.FAILED);
+            return;
+        }
+
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10));
+        logger.warn("Transcode job {} for videoId: {} failed (attempt {}), retrying in {}",
+                job.getId(), job.getVideoId(), job.getAttempts(), backoff, e);
+        job.setStatus(TranscodeStatus.QUEUED);
+        job.setNextAttemptAt(Instant.now().plus(backoff));
+    }
+}
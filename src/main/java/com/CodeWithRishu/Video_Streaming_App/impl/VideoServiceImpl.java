@@ -1,28 +1,61 @@
 package com.CodeWithRishu.Video_Streaming_App.impl;
 
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.cache.SegmentPrefetcher;
+import com.CodeWithRishu.Video_Streaming_App.cache.VideoMetadataCache;
+import com.CodeWithRishu.Video_Streaming_App.dto.TrendingVideoDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoPageDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoStatusDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
 import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadTooLargeException;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
 import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.search.VideoSearchIndex;
 import com.CodeWithRishu.Video_Streaming_App.service.FileStorageService;
+import com.CodeWithRishu.Video_Streaming_App.service.HlsSegmentStore;
+import com.CodeWithRishu.Video_Streaming_App.service.ThumbnailService;
+import com.CodeWithRishu.Video_Streaming_App.service.TranscodeJobService;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoBlobService;
 import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import com.CodeWithRishu.Video_Streaming_App.utils.PageCursor;
+import com.CodeWithRishu.Video_Streaming_App.utils.Serialization;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,8 +69,21 @@ public class VideoServiceImpl implements VideoService {
     @Value("${file.video.hsl-dir}")
     private String hslDir;
 
+    @Value("${video.listing.max-page-size:200}")
+    private int maxPageSize;
+
     private final VideoRepository videoRepository;
     private final FileStorageService fileStorageService;
+    private final TranscodeJobService transcodeJobService;
+    private final HlsSegmentCache hlsSegmentCache;
+    private final VideoMetadataCache videoMetadataCache;
+    private final VideoSearchIndex videoSearchIndex;
+    private final ThumbnailService thumbnailService;
+    private final VideoBlobService videoBlobService;
+    private final VideoMetrics videoMetrics;
+    private final ViewAnalytics viewAnalytics;
+    private final SegmentPrefetcher segmentPrefetcher;
+    private final HlsSegmentStore hlsSegmentStore;
 
     @PostConstruct
     public void init() {
@@ -50,36 +96,200 @@ public class VideoServiceImpl implements VideoService {
         }
     }
 
+    // Before the search index rebuild, which would otherwise skip rows without createdAt
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillCreatedAt() {
+        int updated = videoRepository.backfillCreatedAt(Instant.EPOCH);
+        if (updated > 0) {
+            logger.info("Backfilled createdAt on {} legacy videos", updated);
+        }
+    }
+
     @Override
     public Video save(Video video, MultipartFile videoFile, MultipartFile thumbnailFile) {
         try {
-            String videoFilename = fileStorageService.storeFile(videoFile);
+            FileStorageService.StoredFile storedVideo = fileStorageService.store(videoFile);
             String thumbnailFilename = fileStorageService.storeFile(thumbnailFile);
+            video.setThumbnailContentType(imageContentType(thumbnailFile));
+
+            try {
+                return register(video, storedVideo, videoFile.getContentType(), thumbnailFilename);
+            } catch (TranscodeQueueFullException e) {
+                fileStorageService.discard(storedVideo.fileName());
+                fileStorageService.discard(thumbnailFilename);
+                throw e;
+            }
+
+        } catch (UploadTooLargeException | TranscodeQueueFullException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error while saving video and thumbnail", e);
+            throw new RuntimeException("Error while saving video and thumbnail", e);
+        }
+    }
 
-            video.setContentType(videoFile.getContentType());
-            video.setFilePath(videoFilename);
-            video.setThumbnailUrl(thumbnailFilename);
+    @Override
+    public Video saveStream(Video video, InputStream videoStream, String fileName, String contentType, long contentLength) {
+        if (contentLength > fileStorageService.getMaxUploadSize()) {
+            throw new UploadTooLargeException("Upload of " + contentLength + " bytes exceeds the limit of "
+                    + fileStorageService.getMaxUploadSize() + " bytes");
+        }
+        try {
+            FileStorageService.StoredFile storedVideo = fileStorageService.storeStream(videoStream, fileName);
+            logger.info("Streamed {} bytes for videoId: {} (sha256 {})", storedVideo.size(), video.getVideoId(), storedVideo.sha256());
+
+            try {
+                return register(video, storedVideo, contentType, null);
+            } catch (TranscodeQueueFullException e) {
+                fileStorageService.discard(storedVideo.fileName());
+                throw e;
+            }
 
-            Video savedVideo = videoRepository.save(video);
+        } catch (UploadTooLargeException | TranscodeQueueFullException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error while saving streamed video", e);
+            throw new RuntimeException("Error while saving streamed video", e);
+        }
+    }
 
-            processVideo(savedVideo.getVideoId());
+    @Override
+    public Video saveUploaded(Video video, FileStorageService.StoredFile storedVideo, String contentType) {
+        return register(video, storedVideo, contentType, null);
+    }
 
-            return savedVideo;
+    /**
+     * Only uploads that will be transcoded count against the queue: content whose HLS output is
+     * already published or pending is accepted even when the queue is full. Throws
+     * {@link TranscodeQueueFullException} before any reference is taken, leaving the stored file to
+     * the caller.
+     */
+    private Video register(Video video, FileStorageService.StoredFile storedVideo, String contentType, String thumbnailFilename) {
+        boolean covered = videoBlobService.findHlsKey(storedVideo.sha256()).map(this::hlsCovered).orElse(false);
+        if (!covered) {
+            transcodeJobService.ensureCapacity();
+        }
 
-        } catch (Exception e) {
-            logger.error("Error while saving video and thumbnail", e);
-            throw new RuntimeException("Error while saving video and thumbnail", e);
+        VideoBlobService.BlobRef blob = videoBlobService.acquire(storedVideo, video.getVideoId());
+        if (blob.duplicate()) {
+            fileStorageService.discard(storedVideo.fileName());
+        }
+
+        video.setContentType(contentType);
+        video.setFilePath(blob.filePath());
+        video.setFileSize(storedVideo.size());
+        video.setContentHash(storedVideo.sha256());
+        video.setHlsKey(blob.hlsKey());
+        video.setThumbnailUrl(thumbnailFilename);
+
+        Video savedVideo;
+        try {
+            savedVideo = videoRepository.save(video);
+        } catch (RuntimeException e) {
+            if (videoBlobService.release(storedVideo.sha256())) {
+                fileStorageService.discard(blob.filePath());
+            }
+            throw e;
+        }
+        videoMetadataCache.evict(savedVideo.getVideoId());
+        videoSearchIndex.indexAndPublish(Serialization.mapVideoToDto(savedVideo));
+
+        if (!blob.duplicate()) {
+            transcodeJobService.submit(savedVideo.getVideoId());
+        } else {
+            // Saved before this check, so a transcode publishing concurrently will also stamp this row
+            Optional<Video> published = videoRepository.findFirstByHlsKeyAndHlsVersionIsNotNull(blob.hlsKey());
+            published.ifPresent(p -> {
+                videoRepository.markHlsPublished(blob.hlsKey(), p.getHlsVersion(), p.getHlsPublishedAt());
+                videoMetadataCache.evict(savedVideo.getVideoId());
+            });
+            if (published.isEmpty() && !transcodeJobService.hasPendingJob(blob.hlsKey())) {
+                // The original upload's transcode failed or was cancelled, so nothing will publish this content
+                logger.info("Content of videoId: {} is stored as {} but was never published, transcoding it",
+                        savedVideo.getVideoId(), blob.hlsKey());
+                transcodeJobService.submit(savedVideo.getVideoId());
+            } else {
+                logger.info("Skipping transcode of videoId: {}, content already stored as {}", savedVideo.getVideoId(), blob.hlsKey());
+            }
+        }
+
+        return savedVideo;
+    }
+
+    private boolean hlsCovered(String hlsKey) {
+        return videoRepository.findFirstByHlsKeyAndHlsVersionIsNotNull(hlsKey).isPresent()
+                || transcodeJobService.hasPendingJob(hlsKey);
+    }
+
+    @Override
+    public boolean delete(String videoId) {
+        Optional<Video> found = videoRepository.findById(videoId);
+        if (found.isEmpty()) {
+            return false;
+        }
+        Video video = found.get();
+        videoRepository.delete(video);
+        videoMetadataCache.evict(videoId);
+        videoSearchIndex.removeAndPublish(videoId);
+
+        boolean lastReference = videoBlobService.release(video.getContentHash());
+        thumbnailService.delete(video, lastReference);
+        if (StringUtils.hasText(video.getThumbnailUrl())) {
+            deleteQuietly(Paths.get(uploadDir).resolve(video.getThumbnailUrl()));
+        }
+        if (lastReference) {
+            if (StringUtils.hasText(video.getFilePath())) {
+                deleteQuietly(Paths.get(uploadDir).resolve(video.getFilePath()));
+            }
+            FileSystemUtils.deleteRecursively(Paths.get(hslDir, video.resolveHlsKey()).toFile());
+            hlsSegmentStore.remove(video.resolveHlsKey());
+        }
+        logger.info("Deleted videoId: {} (last reference to its content: {})", videoId, lastReference);
+        return true;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", path, e);
         }
     }
 
     @Override
     public Video get(String videoId) {
-        return videoRepository.findById(videoId).orElseThrow(() -> new RuntimeException("video not found"));
+        return findVideo(videoId).orElseThrow(() -> new RuntimeException("video not found"));
+    }
+
+    @Override
+    public Optional<Video> find(String videoId) {
+        return findVideo(videoId);
     }
 
     @Override
     public Video getByTitle(String title) {
-        return null;
+        return videoSearchIndex.findByExactTitle(title)
+                .flatMap(dto -> findVideo(dto.getId()))
+                .orElse(null);
+    }
+
+    @Override
+    public List<VideoMetaDataDto> search(String query, int limit) {
+        return videoSearchIndex.search(query, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    // Ranked in memory; the totals come from the rows, and videos deleted since drop out
+    @Override
+    public List<TrendingVideoDto> getTrending(int limit) {
+        List<ViewAnalytics.Trending> ranked = viewAnalytics.trending(Math.max(1, Math.min(limit, maxPageSize)));
+        Map<String, Video> videos = videoRepository.findAllById(ranked.stream().map(ViewAnalytics.Trending::videoId).toList())
+                .stream()
+                .collect(Collectors.toMap(Video::getVideoId, Function.identity()));
+        return ranked.stream()
+                .filter(t -> videos.containsKey(t.videoId()))
+                .map(t -> Serialization.mapVideoToTrendingDto(videos.get(t.videoId()), t.score()))
+                .toList();
     }
 
     @Override
@@ -88,43 +298,74 @@ public class VideoServiceImpl implements VideoService {
     }
 
     @Override
-    @Async
-    public void processVideo(String videoId) {
-
-        Video video = this.get(videoId);
+    public VideoPageDto getPage(String cursor, int limit, boolean ascending) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        PageCursor after = StringUtils.hasText(cursor) ? PageCursor.decode(cursor) : null;
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        Limit fetch = Limit.of(pageSize + 1);
+        List<VideoMetaDataDto> rows;
+        if (ascending) {
+            rows = after == null ? videoRepository.findFirstPageAsc(fetch)
+                    : videoRepository.findPageAscAfter(after.createdAt(), after.videoId(), fetch);
+        } else {
+            rows = after == null ? videoRepository.findFirstPageDesc(fetch)
+                    : videoRepository.findPageDescAfter(after.createdAt(), after.videoId(), fetch);
+        }
 
-        Path videoPath = Paths.get(uploadDir, video.getFilePath());
+        if (rows.size() <= pageSize) {
+            return new VideoPageDto(rows, null);
+        }
+        List<VideoMetaDataDto> items = rows.subList(0, pageSize);
+        VideoMetaDataDto last = items.get(pageSize - 1);
+        return new VideoPageDto(items, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
 
-        try {
-            Path outputPath = Paths.get(hslDir, videoId);
+    @Override
+    public TranscodeJob processVideo(String videoId) {
+        transcodeJobService.ensureCapacity();
+        return transcodeJobService.submit(videoId);
+    }
 
-            Files.createDirectories(outputPath);
+    // A deduplicated upload has no job of its own; the one that produced its HLS output counts
+    @Override
+    public Optional<TranscodeJob> getTranscodeJob(String videoId) {
+        Optional<TranscodeJob> own = transcodeJobService.getLatestJob(videoId);
+        String hlsKey = findVideo(videoId).map(Video::resolveHlsKey).orElse(videoId);
+        if (hlsKey.equals(videoId)) {
+            return own;
+        }
+        Optional<TranscodeJob> shared = transcodeJobService.getLatestJob(hlsKey);
+        if (own.isEmpty()) {
+            return shared;
+        }
+        if (shared.isEmpty()) {
+            return own;
+        }
+        return own.get().getCreatedAt().isAfter(shared.get().getCreatedAt()) ? own : shared;
+    }
 
-            String ffmpegCmd = String.format("ffmpeg -i \"%s\" -c:v libx264 -c:a aac -strict -2 -f hls -hls_time 10 -hls_list_size 0 -hls_segment_filename \"%s\\segment_%%3d.ts\" \"%s\\master.m3u8\"", videoPath, outputPath, outputPath);
+    @Override
+    public Optional<VideoStatusDto> getTranscodeStatus(String videoId) {
+        return getTranscodeJob(videoId).map(job -> {
+            VideoStatusDto dto = Serialization.mapJobToStatusDto(job, transcodeJobService.getProgress(job).orElse(null));
+            // Deduplicated uploads report the job that produced their shared output
+            dto.setVideoId(videoId);
+            return dto;
+        });
+    }
 
-            logger.info("Executing FFmpeg command for videoId: {}", videoId);
-            ProcessBuilder processBuilder = new ProcessBuilder("cmd.exe", "/c", ffmpegCmd);
-            processBuilder.inheritIO();
-            Process process = processBuilder.start();
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                logger.error("Video processing failed with exit code: {}", exitCode);
-                throw new RuntimeException("video processing failed!!");
-            }
-            logger.info("Video processing completed successfully for videoId: {}", videoId);
+    @Override
+    public boolean cancelTranscode(String videoId) {
+        return transcodeJobService.cancel(videoId);
+    }
 
-        } catch (IOException ex) {
-            logger.error("IOException during video processing for videoId: {}", videoId, ex);
-            throw new RuntimeException("Video processing fail!!");
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException during video processing for videoId: {}", videoId, e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Video processing was interrupted", e);
-        }
+    private Optional<Video> findVideo(String videoId) {
+        return videoMetadataCache.get(videoId, () -> videoRepository.findById(videoId));
     }
 
     private Resource getResourceFromVideo(String videoId, Function<Video, String> pathExtractor, String pathMissingError, String fileMissingError) throws FileNotFoundException {
-        Video video = videoRepository.findById(videoId)
+        Video video = findVideo(videoId)
                 .orElseThrow(() -> new FileNotFoundException("Video not found with id: " + videoId));
 
         String filePath = pathExtractor.apply(video);
@@ -143,7 +384,27 @@ public class VideoServiceImpl implements VideoService {
 
     @Override
     public Resource getThumbnailResource(String videoId) throws FileNotFoundException {
-        return getResourceFromVideo(videoId, Video::getThumbnailUrl, "Thumbnail URL is not set for videoId: " + videoId, "Thumbnail not found or is not readable for videoId: " + videoId);
+        Video video = findVideo(videoId)
+                .orElseThrow(() -> new FileNotFoundException("Video not found with id: " + videoId));
+        return new FileSystemResource(thumbnailService.original(video));
+    }
+
+    @Override
+    public Resource getThumbnailResource(String videoId, int width) throws IOException {
+        Video video = findVideo(videoId)
+                .orElseThrow(() -> new FileNotFoundException("Video not found with id: " + videoId));
+        return new FileSystemResource(thumbnailService.variant(video, width));
+    }
+
+    // Resolved once at upload so serving a thumbnail never probes the file
+    private static String imageContentType(MultipartFile file) {
+        String declared = file.getContentType();
+        if (declared != null && declared.startsWith("image/")) {
+            return declared;
+        }
+        return MediaTypeFactory.getMediaType(file.getOriginalFilename())
+                .map(MediaType::toString)
+                .orElse(null);
     }
 
     @Override
@@ -153,12 +414,51 @@ public class VideoServiceImpl implements VideoService {
 
     @Override
     public Resource getHlsResource(String videoId, String fileName) throws FileNotFoundException {
-        Path hlsPath = Paths.get(hslDir, videoId, fileName);
+        return hlsResource(videoId, fileName);
+    }
+
+    @Override
+    public Resource getHlsResource(String videoId, String rendition, String fileName) throws FileNotFoundException {
+        return hlsResource(videoId, rendition + "/" + fileName);
+    }
+
+    private Resource hlsResource(String videoId, String relativePath) throws FileNotFoundException {
+        Timer.Sample sample = videoMetrics.startTimer();
+        String type = relativePath.endsWith(".m3u8") ? "playlist" : "segment";
+        String hlsKey = findVideo(videoId).map(Video::resolveHlsKey).orElse(videoId);
+        String cacheKey = HlsSegmentCache.key(hlsKey, relativePath);
+        // Only files listed by the output's playlists are served, cached or not; the store answers without a stat
+        Optional<Path> indexed = hlsSegmentStore.resolve(hlsKey, relativePath);
+        // Read ahead only for real segments, so junk paths cannot queue prefetch work
+        if (indexed.isPresent() && type.equals("segment")) {
+            segmentPrefetcher.readAhead(hlsKey, relativePath);
+        }
+        Resource cached = indexed.isPresent() ? hlsSegmentCache.get(cacheKey) : null;
+        if (cached != null) {
+            videoMetrics.recordHlsLookup(sample, type, true);
+            return cached;
+        }
+        try {
+            Path hlsPath = indexed.orElseThrow(() -> new FileNotFoundException("HLS resource not found: " + relativePath + " for videoId: " + videoId));
+            return loadHlsResource(videoId, hlsKey, cacheKey, relativePath, hlsPath);
+        } finally {
+            videoMetrics.recordHlsLookup(sample, type, false);
+        }
+    }
+
+    private Resource loadHlsResource(String videoId, String hlsKey, String cacheKey, String relativePath, Path hlsPath) throws FileNotFoundException {
         Resource resource = new FileSystemResource(hlsPath);
 
-        if (!resource.exists() || !resource.isReadable()) {
-            throw new FileNotFoundException("HLS resource not found or is not readable: " + fileName + " for videoId: " + videoId);
+        try {
+            Resource loaded = hlsSegmentCache.load(cacheKey, hlsPath);
+            return loaded != null ? loaded : resource;
+        } catch (NoSuchFileException e) {
+            // Removed behind the index's back
+            hlsSegmentStore.refresh(hlsKey);
+            throw new FileNotFoundException("HLS resource not found: " + relativePath + " for videoId: " + videoId);
+        } catch (IOException e) {
+            logger.warn("Could not cache HLS resource {} for videoId: {}", relativePath, videoId, e);
+            return resource;
         }
-        return resource;
     }
 }
\ No newline at end of file
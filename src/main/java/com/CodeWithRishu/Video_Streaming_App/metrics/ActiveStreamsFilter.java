@@ -0,0 +1,74 @@
+package com.CodeWithRishu.Video_Streaming_App.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks progressive-stream and HLS-segment responses in flight for {@link VideoMetrics#ACTIVE_STREAMS}.
+ * Covers both the MVC endpoints, which finish writing before the chain returns, and the reactive
+ * ones, which finish asynchronously.
+ */
+@Component
+public class ActiveStreamsFilter extends OncePerRequestFilter {
+
+    private final VideoMetrics videoMetrics;
+
+    public ActiveStreamsFilter(VideoMetrics videoMetrics) {
+        this.videoMetrics = videoMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !(uri.contains("/stream/") || uri.endsWith(".ts"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (finished.compareAndSet(false, true)) {
+                videoMetrics.streamFinished();
+            }
+        };
+        videoMetrics.streamStarted();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        finish.run();
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        finish.run();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                finish.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.CodeWithRishu.Video_Streaming_App.metrics;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.cache.SegmentPrefetcher;
+import com.CodeWithRishu.Video_Streaming_App.cache.VideoMetadataCache;
+import com.CodeWithRishu.Video_Streaming_App.service.TranscodeJobService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters the caches and the transcode queue already keep. Hit ratios are left to
+ * the query, e.g. {@code rate(video_hls_cache_requests_total{result="hit"}[5m]) /
+ * rate(video_hls_cache_requests_total[5m])}, so they reflect recent traffic rather than uptime.
+ */
+@Component
+public class VideoMeterBinder implements MeterBinder {
+
+    private final HlsSegmentCache hlsSegmentCache;
+    private final VideoMetadataCache videoMetadataCache;
+    private final TranscodeJobService transcodeJobService;
+    private final SegmentPrefetcher segmentPrefetcher;
+
+    public VideoMeterBinder(HlsSegmentCache hlsSegmentCache,
+                            VideoMetadataCache videoMetadataCache,
+                            TranscodeJobService transcodeJobService,
+                            SegmentPrefetcher segmentPrefetcher) {
+        this.hlsSegmentCache = hlsSegmentCache;
+        this.videoMetadataCache = videoMetadataCache;
+        this.transcodeJobService = transcodeJobService;
+        this.segmentPrefetcher = segmentPrefetcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("video.hls.cache.requests", hlsSegmentCache, cache -> cache.stats().getHits())
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("video.hls.cache.requests", hlsSegmentCache, cache -> cache.stats().getMisses())
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("video.hls.cache.evictions", hlsSegmentCache, cache -> cache.stats().getEvictions())
+                .register(registry);
+        Gauge.builder("video.hls.cache.size", hlsSegmentCache, cache -> cache.stats().getSizeBytes())
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("video.hls.cache.entries", hlsSegmentCache, cache -> cache.stats().getEntries())
+                .register(registry);
+        FunctionCounter.builder("video.hls.prefetch", segmentPrefetcher, SegmentPrefetcher::getLoaded)
+                .tag("result", "loaded").register(registry);
+        FunctionCounter.builder("video.hls.prefetch", segmentPrefetcher, SegmentPrefetcher::getDropped)
+                .tag("result", "dropped").register(registry);
+
+        FunctionCounter.builder("video.metadata.cache.requests", videoMetadataCache, cache -> cache.stats().getL1Hits())
+                .tag("result", "l1-hit").register(registry);
+        FunctionCounter.builder("video.metadata.cache.requests", videoMetadataCache, cache -> cache.stats().getL2Hits())
+                .tag("result", "l2-hit").register(registry);
+        FunctionCounter.builder("video.metadata.cache.requests", videoMetadataCache, cache -> cache.stats().getMisses())
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("video.metadata.cache.l2.errors", videoMetadataCache, cache -> cache.stats().getL2Errors())
+                .register(registry);
+
+        // Counted in the database on each scrape, which is what admission control checks too
+        Gauge.builder("video.transcode.queue.depth", transcodeJobService, TranscodeJobService::getQueueDepth)
+                .register(registry);
+        Gauge.builder("video.transcode.workers.active", transcodeJobService, TranscodeJobService::getActiveWorkers)
+                .register(registry);
+    }
+}
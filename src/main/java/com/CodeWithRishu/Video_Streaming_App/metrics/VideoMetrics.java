@@ -0,0 +1,101 @@
+package com.CodeWithRishu.Video_Streaming_App.metrics;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application meters for the upload, transcode and delivery paths, published through
+ * {@code /actuator/prometheus}. Per-request HTTP latency comes from Spring's own
+ * {@code http.server.requests}; these cover the work inside the endpoints.
+ */
+@Component
+public class VideoMetrics {
+
+    public static final String UPLOAD = "video.upload";
+    public static final String UPLOAD_BYTES = "video.upload.bytes";
+    public static final String TRANSCODE = "video.transcode";
+    public static final String HLS_LOOKUP = "video.hls.lookup";
+    public static final String STREAM_REGIONS = "video.stream.regions";
+    public static final String BYTES_SERVED = "video.bytes.served";
+    public static final String BYTES_SERVED_BY_VIDEO = "video.bytes.served.by.video";
+    public static final String ACTIVE_STREAMS = "video.streams.active";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public VideoMetrics(MeterRegistry registry,
+                        @Value("${video.metrics.max-video-tags:500}") int maxVideoTags) {
+        this.registry = registry;
+        // One series per video would grow without bound; past the cap new videos only count by rendition
+        registry.config().meterFilter(MeterFilter.maximumAllowableTags(BYTES_SERVED_BY_VIDEO, "video", maxVideoTags, MeterFilter.deny()));
+        Gauge.builder(ACTIVE_STREAMS, activeStreams, AtomicInteger::get)
+                .description("Progressive and HLS segment responses currently being written")
+                .register(registry);
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+
+    /** {@code source} is how the bytes arrived: multipart, stream, chunk or chunked-finish. */
+    public void recordUpload(Timer.Sample sample, String source, long bytes, boolean success) {
+        sample.stop(timer(UPLOAD, "source", source, "outcome", outcome(success)));
+        if (bytes > 0) {
+            Counter.builder(UPLOAD_BYTES).baseUnit("bytes").tag("source", source).register(registry).increment(bytes);
+        }
+    }
+
+    /** {@code outcome} is success, failure or cancelled. */
+    public void recordTranscode(Timer.Sample sample, String mode, String outcome) {
+        sample.stop(timer(TRANSCODE, "mode", mode, "outcome", outcome));
+    }
+
+    public void recordHlsLookup(Timer.Sample sample, String type, boolean cacheHit) {
+        sample.stop(timer(HLS_LOOKUP, "type", type, "cache", cacheHit ? "hit" : "miss"));
+    }
+
+    public void recordRegions(Timer.Sample sample, int regions) {
+        sample.stop(timer(STREAM_REGIONS, "ranges", regions == 1 ? "single" : "multiple"));
+    }
+
+    /**
+     * Counts the bytes selected for a response body. {@code rendition} is the rendition name, or
+     * {@code source} for the original upload and {@code default} for single-rendition output.
+     */
+    public void recordBytesServed(String videoId, String rendition, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        Counter.builder(BYTES_SERVED).baseUnit("bytes").tag("rendition", rendition).register(registry).increment(bytes);
+        Counter.builder(BYTES_SERVED_BY_VIDEO).baseUnit("bytes").tag("video", videoId).register(registry).increment(bytes);
+    }
+
+    public void streamStarted() {
+        activeStreams.incrementAndGet();
+    }
+
+    public void streamFinished() {
+        activeStreams.decrementAndGet();
+    }
+
+    /** The rendition a path under the HLS output belongs to. */
+    public static String renditionOf(String relativePath) {
+        int slash = relativePath.indexOf('/');
+        return slash > 0 ? relativePath.substring(0, slash) : "default";
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
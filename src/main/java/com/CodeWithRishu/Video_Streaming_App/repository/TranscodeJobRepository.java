@@ -0,0 +1,103 @@
+package com.CodeWithRishu.Video_Streaming_App.repository;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TranscodeJobRepository extends JpaRepository<TranscodeJob, Long> {
+
+    Optional<TranscodeJob> findFirstByVideoIdOrderByCreatedAtDesc(String videoId);
+
+    long countByStatus(TranscodeStatus status);
+
+    List<TranscodeJob> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(TranscodeStatus status, Instant now, Limit limit);
+
+    // Whether a queued or running job will publish the HLS output stored under this content key
+    @Query("select count(j) > 0 from TranscodeJob j, Video v where v.videoId = j.videoId and v.hlsKey = :hlsKey " +
+            "and j.status in (com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.QUEUED, " +
+            "com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING)")
+    boolean existsPendingForHlsKey(@Param("hlsKey") String hlsKey);
+
+    // Claims a queued job for this worker; returns 0 when another worker got there first.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING, " +
+            "j.attempts = j.attempts + 1, j.updatedAt = :now, j.owner = :owner, j.leaseExpiresAt = :leaseUntil " +
+            "where j.id = :id and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    // Heartbeat: extends the lease on the jobs this node is still running.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.leaseExpiresAt = :leaseUntil " +
+            "where j.id in :ids and j.owner = :owner " +
+            "and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    // Records a running job's outcome; returns 0 when its lease lapsed and the job was taken over.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = :status, j.lastError = :lastError, j.nextAttemptAt = :nextAttemptAt, " +
+            "j.updatedAt = :now, j.owner = null, j.leaseExpiresAt = null " +
+            "where j.id = :id and j.owner = :owner " +
+            "and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING")
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("status") TranscodeStatus status,
+                 @Param("lastError") String lastError, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("now") Instant now);
+
+    // Re-queues running jobs that were claimed by this node before it restarted and have attempts left.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.QUEUED, " +
+            "j.owner = null, j.leaseExpiresAt = null, j.updatedAt = :now, j.nextAttemptAt = :now " +
+            "where j.owner = :owner and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING " +
+            "and j.attempts < :maxAttempts")
+    int requeueOwned(@Param("owner") String owner, @Param("now") Instant now, @Param("maxAttempts") int maxAttempts);
+
+    // Fails the jobs requeueOwned leaves behind: every attempt ended with the node going down.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.FAILED, " +
+            "j.owner = null, j.leaseExpiresAt = null, j.updatedAt = :now, j.lastError = :lastError " +
+            "where j.owner = :owner and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING " +
+            "and j.attempts >= :maxAttempts")
+    int failOwnedExhausted(@Param("owner") String owner, @Param("now") Instant now, @Param("maxAttempts") int maxAttempts,
+                           @Param("lastError") String lastError);
+
+    // Re-queues running jobs whose node stopped renewing the lease (rows without one predate leases)
+    // and that have attempts left.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.QUEUED, " +
+            "j.owner = null, j.leaseExpiresAt = null, j.updatedAt = :now, j.nextAttemptAt = :now " +
+            "where j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING " +
+            "and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now) and j.attempts < :maxAttempts")
+    int requeueExpired(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts);
+
+    // Fails the jobs requeueExpired leaves behind, so a job that keeps killing its node is not claimed forever.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.FAILED, " +
+            "j.owner = null, j.leaseExpiresAt = null, j.updatedAt = :now, j.lastError = :lastError " +
+            "where j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.RUNNING " +
+            "and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now) and j.attempts >= :maxAttempts")
+    int failExpiredExhausted(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts,
+                             @Param("lastError") String lastError);
+
+    // Cancels a job no worker has claimed yet; returns 0 when it is already running or finished.
+    @Transactional
+    @Modifying
+    @Query("update TranscodeJob j set j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.CANCELLED, " +
+            "j.updatedAt = :now " +
+            "where j.id = :id and j.status = com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus.QUEUED")
+    int cancelQueued(@Param("id") Long id, @Param("now") Instant now);
+}
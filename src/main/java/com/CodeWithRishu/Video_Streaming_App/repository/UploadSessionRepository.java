@@ -0,0 +1,13 @@
+package com.CodeWithRishu.Video_Streaming_App.repository;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByStatusAndUpdatedAtBefore(UploadStatus status, Instant cutoff);
+}
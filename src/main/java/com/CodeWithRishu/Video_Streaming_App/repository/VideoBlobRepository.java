@@ -0,0 +1,27 @@
+package com.CodeWithRishu.Video_Streaming_App.repository;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.VideoBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface VideoBlobRepository extends JpaRepository<VideoBlob, String> {
+
+    // Takes a reference only while the blob is live; a blob whose count already reached zero is being removed
+    @Transactional
+    @Modifying
+    @Query("update VideoBlob b set b.refCount = b.refCount + 1 where b.sha256 = :sha256 and b.refCount > 0")
+    int acquire(@Param("sha256") String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("update VideoBlob b set b.refCount = b.refCount - 1 where b.sha256 = :sha256 and b.refCount > 0")
+    int release(@Param("sha256") String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("delete from VideoBlob b where b.sha256 = :sha256 and b.refCount = 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
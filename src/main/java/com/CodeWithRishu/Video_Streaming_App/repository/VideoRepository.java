@@ -1,10 +1,58 @@
 package com.CodeWithRishu.Video_Streaming_App.repository;
 
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
 import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface VideoRepository extends JpaRepository<Video, String> {
     Optional<Video> findByTitle(String title);
-}
\ No newline at end of file
+
+    @Query("select new com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto(v.videoId, v.title, v.description, v.contentType, v.createdAt) " +
+            "from Video v order by v.createdAt desc, v.videoId desc")
+    List<VideoMetaDataDto> findFirstPageDesc(Limit limit);
+
+    @Query("select new com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto(v.videoId, v.title, v.description, v.contentType, v.createdAt) " +
+            "from Video v where v.createdAt < :createdAt or (v.createdAt = :createdAt and v.videoId < :videoId) " +
+            "order by v.createdAt desc, v.videoId desc")
+    List<VideoMetaDataDto> findPageDescAfter(@Param("createdAt") Instant createdAt, @Param("videoId") String videoId, Limit limit);
+
+    @Query("select new com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto(v.videoId, v.title, v.description, v.contentType, v.createdAt) " +
+            "from Video v order by v.createdAt asc, v.videoId asc")
+    List<VideoMetaDataDto> findFirstPageAsc(Limit limit);
+
+    @Query("select new com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto(v.videoId, v.title, v.description, v.contentType, v.createdAt) " +
+            "from Video v where v.createdAt > :createdAt or (v.createdAt = :createdAt and v.videoId > :videoId) " +
+            "order by v.createdAt asc, v.videoId asc")
+    List<VideoMetaDataDto> findPageAscAfter(@Param("createdAt") Instant createdAt, @Param("videoId") String videoId, Limit limit);
+
+    @Query("select new com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto(v.videoId, v.title, v.description, v.contentType, v.createdAt) " +
+            "from Video v where v.videoId = :videoId")
+    Optional<VideoMetaDataDto> findMetaDataById(@Param("videoId") String videoId);
+
+    // Rows written before createdAt existed would otherwise fall outside every keyset page
+    @Transactional
+    @Modifying
+    @Query("update Video v set v.createdAt = :createdAt where v.createdAt is null")
+    int backfillCreatedAt(@Param("createdAt") Instant createdAt);
+
+    // Rows written before deduplication have no hlsKey and own the directory named after their id
+    @Transactional
+    @Modifying
+    @Query("update Video v set v.hlsVersion = :hlsVersion, v.hlsPublishedAt = :publishedAt " +
+            "where v.hlsKey = :hlsKey or (v.hlsKey is null and v.videoId = :hlsKey)")
+    int markHlsPublished(@Param("hlsKey") String hlsKey, @Param("hlsVersion") String hlsVersion, @Param("publishedAt") Instant publishedAt);
+
+    @Query("select v.videoId from Video v where v.hlsKey = :hlsKey or (v.hlsKey is null and v.videoId = :hlsKey)")
+    List<String> findVideoIdsByHlsKey(@Param("hlsKey") String hlsKey);
+
+    Optional<Video> findFirstByHlsKeyAndHlsVersionIsNotNull(String hlsKey);
+}
@@ -0,0 +1,240 @@
+package com.CodeWithRishu.Video_Streaming_App.search;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.MetadataStore;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over video titles and descriptions. Every query term is matched as
+ * a prefix (exact matches score higher), all terms must match, and hits are ranked by a
+ * field-boosted tf-idf score.
+ *
+ * <p>Every node keeps its own copy. Title and description writes on another node reach this one
+ * through the search update channel, which re-reads the row and reindexes or drops it. Plain
+ * metadata evictions (status, views, publishing) do not, since they cannot change the index.
+ */
+@Component
+public class VideoSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoSearchIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_PENALTY = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    private static final int EXACT_TITLE_CANDIDATES = 50;
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    private final VideoRepository videoRepository;
+    private final MetadataStore metadataStore;
+
+    private final TreeMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public VideoSearchIndex(VideoRepository videoRepository, MetadataStore metadataStore) {
+        this.videoRepository = videoRepository;
+        this.metadataStore = metadataStore;
+        metadataStore.onSearchUpdate(this::refresh);
+    }
+
+    // Pages by createdAt, so it runs after the legacy-row backfill
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void rebuild() {
+        long started = System.nanoTime();
+        int count = 0;
+        List<VideoMetaDataDto> page = videoRepository.findFirstPageAsc(Limit.of(BUILD_PAGE_SIZE));
+        while (!page.isEmpty()) {
+            page.forEach(this::index);
+            count += page.size();
+            VideoMetaDataDto last = page.get(page.size() - 1);
+            if (page.size() < BUILD_PAGE_SIZE || last.getCreatedAt() == null) {
+                break;
+            }
+            page = videoRepository.findPageAscAfter(last.getCreatedAt(), last.getId(), Limit.of(BUILD_PAGE_SIZE));
+        }
+        logger.info("Search index built with {} videos in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void index(VideoMetaDataDto video) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : tokenize(video.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : tokenize(video.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(video.getId());
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                        .put(video.getId(), entry.getValue());
+            }
+            documents.put(video.getId(), new Document(video, weights.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes a locally saved video and tells the other nodes to pick it up. */
+    public void indexAndPublish(VideoMetaDataDto video) {
+        index(video);
+        publish(video.getId());
+    }
+
+    public void removeAndPublish(String videoId) {
+        remove(videoId);
+        publish(videoId);
+    }
+
+    public void refresh(String videoId) {
+        try {
+            videoRepository.findMetaDataById(videoId).ifPresentOrElse(this::index, () -> remove(videoId));
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh search index for videoId: {}", videoId, e);
+        }
+    }
+
+    public void remove(String videoId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(videoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<VideoMetaDataDto> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (String term : new LinkedHashSet<>(terms)) {
+                Map<String, Float> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            PriorityQueue<Map.Entry<String, Float>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<String, Float> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<VideoMetaDataDto> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(documents.get(top.poll().getKey()).video());
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Same normalization as search, so "cafe  VLOG" finds "Café vlog"
+    public Optional<VideoMetaDataDto> findByExactTitle(String title) {
+        List<String> wanted = tokenize(title);
+        return search(title, EXACT_TITLE_CANDIDATES).stream()
+                .filter(video -> tokenize(video.getTitle()).equals(wanted))
+                .findFirst();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void publish(String videoId) {
+        try {
+            metadataStore.publishSearchUpdate(videoId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish search update for videoId: {}", videoId, e);
+        }
+    }
+
+    // Best contribution per document across every index term the query term is a prefix of
+    private Map<String, Float> scoreTerm(String term) {
+        Map<String, Float> scores = new HashMap<>();
+        int expansions = 0;
+        for (Map.Entry<String, Map<String, Float>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<String, Float> docs = entry.getValue();
+            float idf = (float) Math.log(1.0 + (double) documents.size() / docs.size());
+            float factor = entry.getKey().equals(term) ? idf : idf * PREFIX_PENALTY;
+            for (Map.Entry<String, Float> doc : docs.entrySet()) {
+                scores.merge(doc.getKey(), doc.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(String videoId) {
+        Document previous = documents.remove(videoId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<String, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(videoId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record Document(VideoMetaDataDto video, Set<String> terms) {
+    }
+}
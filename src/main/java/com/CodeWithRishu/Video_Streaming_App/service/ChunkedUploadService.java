@@ -0,0 +1,18 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadInitRequestDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+
+import java.io.InputStream;
+
+public interface ChunkedUploadService {
+
+    UploadSession init(UploadInitRequestDto request);
+
+    UploadSession writePart(String uploadId, int partNumber, long offset, InputStream body, long contentLength);
+
+    UploadSession get(String uploadId);
+
+    Video complete(String uploadId);
+}
@@ -1,24 +1,52 @@
 package com.CodeWithRishu.Video_Streaming_App.service;
 
+import com.CodeWithRishu.Video_Streaming_App.exception.InvalidUploadException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadAbortedException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadTooLargeException;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @Service
 public class FileStorageService {
 
+    private static final long TRANSFER_CHUNK = 8L * 1024L * 1024L; // 8 MB
+
     private final Path fileStorageLocation;
+    private final long maxUploadSize;
+    private final VideoMetrics videoMetrics;
 
-    public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir,
+                              @Value("${file.upload.max-size:10GB}") DataSize maxUploadSize,
+                              VideoMetrics videoMetrics) {
         this.fileStorageLocation = Paths.get(uploadDir)
                 .toAbsolutePath().normalize();
+        this.maxUploadSize = maxUploadSize.toBytes();
+        this.videoMetrics = videoMetrics;
         try {
             Files.createDirectories(this.fileStorageLocation);
         } catch (Exception ex) {
@@ -27,14 +55,264 @@ public class FileStorageService {
     }
 
     public String storeFile(MultipartFile file) {
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
+        return store(file).fileName();
+    }
+
+    public StoredFile store(MultipartFile file) {
+        if (file.getSize() > maxUploadSize) {
+            throw new UploadTooLargeException("File exceeds the upload limit of " + maxUploadSize + " bytes");
+        }
+        return timed("multipart", () -> {
+            try (InputStream in = file.getInputStream()) {
+                return write(in, file.getOriginalFilename());
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not read uploaded file " + file.getOriginalFilename() + ". Please try again!", ex);
+            }
+        }, StoredFile::size);
+    }
+
+    public StoredFile storeStream(InputStream in, String originalFilename) {
+        return timed("stream", () -> write(in, originalFilename), StoredFile::size);
+    }
+
+    private StoredFile write(InputStream in, String originalFilename) {
+        String fileName = UUID.randomUUID() + "_" + cleanFilename(originalFilename);
+        Path targetLocation = this.fileStorageLocation.resolve(fileName);
+        Path partialLocation = partialPath(fileName);
+
+        MessageDigest digest = newDigest();
+        long size = 0;
+        try (DigestingChannel source = new DigestingChannel(Channels.newChannel(in), digest, maxUploadSize);
+             FileChannel target = FileChannel.open(partialLocation, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long transferred;
+            while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                size += transferred;
+            }
+            // transferFrom also returns 0 when the source is drained, so make sure that really was EOF
+            if (!source.isEof()) {
+                throw new IOException("Upload stream stalled after " + size + " bytes");
+            }
+        } catch (UploadTooLargeException ex) {
+            deleteQuietly(partialLocation);
+            throw ex;
+        } catch (IOException ex) {
+            deleteQuietly(partialLocation);
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        }
 
         try {
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            return fileName;
+            Files.move(partialLocation, targetLocation, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException ex) {
+            deleteQuietly(partialLocation);
             throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
         }
+        return new StoredFile(fileName, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    public String allocate(String originalFilename, long size) {
+        if (size > maxUploadSize) {
+            throw new UploadTooLargeException("Upload of " + size + " bytes exceeds the limit of " + maxUploadSize + " bytes");
+        }
+        String fileName = UUID.randomUUID() + "_" + cleanFilename(originalFilename);
+        try (FileChannel channel = FileChannel.open(partialPath(fileName), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (size > 0) {
+                // Extends the file to its final length; on most filesystems this is sparse until parts land
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            return fileName;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not allocate file " + fileName + ". Please try again!", ex);
+        }
+    }
+
+    public long writeAt(String fileName, long offset, InputStream in, long length) {
+        return timed("chunk", () -> writePart(fileName, offset, in, length), Long::longValue);
+    }
+
+    private long writePart(String fileName, long offset, InputStream in, long length) {
+        ClientInput body = new ClientInput(in);
+        try (ReadableByteChannel source = Channels.newChannel(body);
+             FileChannel target = FileChannel.open(partialPath(fileName), StandardOpenOption.WRITE)) {
+            long written = 0;
+            long transferred;
+            while (written < length && (transferred = target.transferFrom(source, offset + written, length - written)) > 0) {
+                written += transferred;
+            }
+            if (written == length && body.read() != -1) {
+                throw new InvalidUploadException("Part body is longer than the expected " + length + " bytes");
+            }
+            return written;
+        } catch (NoSuchFileException ex) {
+            // Completed or expired since the part was accepted
+            throw new InvalidUploadException("Upload file " + fileName + " is no longer open for parts");
+        } catch (IOException ex) {
+            if (body.failed) {
+                throw new UploadAbortedException("Client stopped sending the part for " + fileName + " at offset " + offset, ex);
+            }
+            throw new RuntimeException("Could not write to file " + fileName + " at offset " + offset, ex);
+        }
+    }
+
+    // Read back for hashing only; the bytes were already counted as they arrived in parts
+    public StoredFile finish(String fileName) {
+        return timed("chunked-finish", () -> readBack(fileName), stored -> 0);
+    }
+
+    private StoredFile readBack(String fileName) {
+        Path partialLocation = partialPath(fileName);
+        Path targetLocation = this.fileStorageLocation.resolve(fileName);
+        // A completion retried after a rejection finds the file already finalized
+        boolean finalized = !Files.exists(partialLocation) && Files.exists(targetLocation);
+        MessageDigest digest = newDigest();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(finalized ? targetLocation : partialLocation, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                size += read;
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read back file " + fileName, ex);
+        }
+        if (!finalized) {
+            try {
+                Files.move(partialLocation, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not finalize file " + fileName, ex);
+            }
+        }
+        return new StoredFile(fileName, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private <T> T timed(String source, Supplier<T> work, ToLongFunction<T> bytes) {
+        Timer.Sample sample = videoMetrics.startTimer();
+        T result = null;
+        boolean success = false;
+        try {
+            result = work.get();
+            success = true;
+            return result;
+        } finally {
+            videoMetrics.recordUpload(sample, source, success ? bytes.applyAsLong(result) : 0, success);
+        }
+    }
+
+    public void discard(String fileName) {
+        deleteQuietly(partialPath(fileName));
+        deleteQuietly(this.fileStorageLocation.resolve(fileName));
+    }
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    private Path partialPath(String fileName) {
+        return this.fileStorageLocation.resolve(fileName + ".part");
+    }
+
+    private static String cleanFilename(String originalFilename) {
+        String cleaned = StringUtils.getFilename(StringUtils.cleanPath(originalFilename == null ? "" : originalFilename));
+        return StringUtils.hasText(cleaned) ? cleaned : "upload";
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    public record StoredFile(String fileName, long size, String sha256) {
+    }
+
+    /**
+     * Feeds every byte read through a digest and aborts once more than {@code limit} bytes arrive.
+     */
+    private static final class DigestingChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel delegate;
+        private final MessageDigest digest;
+        private final long limit;
+        private long count;
+        private boolean eof;
+
+        DigestingChannel(ReadableByteChannel delegate, MessageDigest digest, long limit) {
+            this.delegate = delegate;
+            this.digest = digest;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int read = delegate.read(dst);
+            if (read < 0) {
+                eof = true;
+                return read;
+            }
+            count += read;
+            if (count > limit) {
+                throw new UploadTooLargeException("Upload exceeds the limit of " + limit + " bytes");
+            }
+            ByteBuffer view = dst.duplicate();
+            view.flip().position(start);
+            digest.update(view);
+            return read;
+        }
+
+        boolean isEof() {
+            return eof;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // Tells a client that dropped mid-part apart from a failure on our side of the copy
+    private static final class ClientInput extends FilterInputStream {
+
+        private boolean failed;
+
+        ClientInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,345 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.dto.HlsStoreStatsDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPlaylists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the HLS output under {@code file.video.hsl-dir}: for each output directory,
+ * the playlists and the segments they reference that exist on disk. Requests are answered from the
+ * index only, so a URL can never name a file the playlists do not list (which also rules out path
+ * traversal) and a lookup does not stat the filesystem.
+ * <p>
+ * The index is built at startup and updated by the transcoder as it publishes. An output that is
+ * missing or still being written is rescanned on a miss, at most once per
+ * {@code video.hls.store.rescan-interval}. A scheduled reconciler removes output directories no
+ * video refers to and unfinished output that no transcode is working on, and flags output whose
+ * playlists reference segments that are gone. Output dropped from the index is dropped from the
+ * {@link HlsSegmentCache} as well.
+ */
+@Service
+public class HlsSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HlsSegmentStore.class);
+    private static final String ENDLIST = "#EXT-X-ENDLIST";
+    private static final Set<TranscodeStatus> ACTIVE = EnumSet.of(TranscodeStatus.QUEUED, TranscodeStatus.RUNNING);
+
+    private final VideoRepository videoRepository;
+    private final TranscodeJobRepository transcodeJobRepository;
+    private final HlsSegmentCache hlsSegmentCache;
+    private final Path hlsRoot;
+    private final long rescanNanos;
+    private final Duration orphanGrace;
+    private final ConcurrentHashMap<String, Manifest> manifests = new ConcurrentHashMap<>();
+    private final LongAdder removedOutputs = new LongAdder();
+    private volatile Instant lastReconciledAt;
+
+    public HlsSegmentStore(VideoRepository videoRepository,
+                           TranscodeJobRepository transcodeJobRepository,
+                           HlsSegmentCache hlsSegmentCache,
+                           @Value("${file.video.hsl-dir}") String hslDir,
+                           @Value("${video.hls.store.rescan-interval:5s}") Duration rescanInterval,
+                           @Value("${video.hls.store.orphan-grace:1h}") Duration orphanGrace) {
+        this.videoRepository = videoRepository;
+        this.transcodeJobRepository = transcodeJobRepository;
+        this.hlsSegmentCache = hlsSegmentCache;
+        this.hlsRoot = Paths.get(hslDir).toAbsolutePath().normalize();
+        this.rescanNanos = rescanInterval.toNanos();
+        this.orphanGrace = orphanGrace;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long files = 0;
+        for (String hlsKey : outputDirectories()) {
+            Manifest manifest = refresh(hlsKey);
+            files += manifest == null ? 0 : manifest.files().size();
+        }
+        logger.info("Indexed {} HLS files in {} outputs", files, manifests.size());
+    }
+
+    /**
+     * The file behind {@code relativePath} of the output {@code hlsKey}, if a playlist of that
+     * output lists it.
+     */
+    public Optional<Path> resolve(String hlsKey, String relativePath) {
+        if (!isValidKey(hlsKey)) {
+            return Optional.empty();
+        }
+        Manifest manifest = manifests.get(hlsKey);
+        if (manifest != null) {
+            Path file = manifest.files().get(relativePath);
+            if (file != null || manifest.complete() || System.nanoTime() - manifest.scannedAtNanos() < rescanNanos) {
+                return Optional.ofNullable(file);
+            }
+        }
+        // Unknown output, or one still being written whose last scan is old enough to repeat
+        manifest = refresh(hlsKey);
+        return manifest == null ? Optional.empty() : Optional.ofNullable(manifest.files().get(relativePath));
+    }
+
+    public Optional<Manifest> manifest(String hlsKey) {
+        return isValidKey(hlsKey) ? Optional.ofNullable(manifests.get(hlsKey)) : Optional.empty();
+    }
+
+    /** Rescans one output and replaces its index entry; returns {@code null} if it does not exist. */
+    public Manifest refresh(String hlsKey) {
+        if (!isValidKey(hlsKey)) {
+            return null;
+        }
+        Path dir = hlsRoot.resolve(hlsKey);
+        if (!Files.isDirectory(dir)) {
+            remove(hlsKey);
+            return null;
+        }
+        Manifest manifest;
+        try {
+            manifest = scan(hlsKey, dir);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not index HLS output {}", hlsKey, e);
+            manifest = new Manifest(hlsKey, Map.of(), List.of(), List.of(), false, System.nanoTime());
+        }
+        manifests.put(hlsKey, manifest);
+        return manifest;
+    }
+
+    public void remove(String hlsKey) {
+        manifests.remove(hlsKey);
+        hlsSegmentCache.invalidate(hlsKey);
+    }
+
+    /**
+     * Removes output directories nobody refers to and unfinished output with no transcode behind
+     * it, once they have been left alone for {@code video.hls.store.orphan-grace}; reindexes and
+     * checks everything else.
+     */
+    @Scheduled(initialDelayString = "${video.hls.store.reconcile-interval:1h}",
+            fixedDelayString = "${video.hls.store.reconcile-interval:1h}")
+    public void reconcile() {
+        Instant cutoff = Instant.now().minus(orphanGrace);
+        Set<String> present = new HashSet<>();
+        for (String hlsKey : outputDirectories()) {
+            present.add(hlsKey);
+            Path dir = hlsRoot.resolve(hlsKey);
+            try {
+                List<String> videoIds = videoRepository.findVideoIdsByHlsKey(hlsKey);
+                boolean idle = lastModified(dir).toInstant().isBefore(cutoff);
+                if (videoIds.isEmpty()) {
+                    if (idle) {
+                        delete(hlsKey, dir, "no video refers to it");
+                    }
+                    continue;
+                }
+                Manifest manifest = refresh(hlsKey);
+                if (manifest != null && !manifest.finished() && idle && videoIds.stream().noneMatch(this::transcoding)) {
+                    delete(hlsKey, dir, "its transcode never finished");
+                    continue;
+                }
+                if (manifest != null && !manifest.missing().isEmpty()) {
+                    logger.warn("HLS output {} of videos {} references {} missing files, e.g. {}", hlsKey, videoIds,
+                            manifest.missing().size(), manifest.missing().get(0));
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not reconcile HLS output {}", hlsKey, e);
+            }
+        }
+        for (String hlsKey : manifests.keySet()) {
+            if (!present.contains(hlsKey)) {
+                remove(hlsKey);
+            }
+        }
+        lastReconciledAt = Instant.now();
+    }
+
+    public HlsStoreStatsDto stats() {
+        Map<String, List<String>> broken = new TreeMap<>();
+        long files = 0;
+        for (Manifest manifest : manifests.values()) {
+            files += manifest.files().size();
+            if (!manifest.missing().isEmpty()) {
+                broken.put(manifest.hlsKey(), manifest.missing());
+            }
+        }
+        return HlsStoreStatsDto.builder()
+                .indexedOutputs(manifests.size())
+                .indexedFiles(files)
+                .broken(broken)
+                .removedOutputs(removedOutputs.sum())
+                .lastReconciledAt(lastReconciledAt)
+                .build();
+    }
+
+    // Output directories are named after an hlsKey, i.e. a UUID; anything that could step out of
+    // the HLS root is rejected before it reaches the filesystem
+    static boolean isValidKey(String hlsKey) {
+        return hlsKey != null && !hlsKey.isEmpty() && !hlsKey.startsWith(".")
+                && hlsKey.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_');
+    }
+
+    private Manifest scan(String hlsKey, Path dir) throws IOException {
+        Map<String, Path> files = new LinkedHashMap<>();
+        List<MediaPlaylist> media = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        long scannedAt = System.nanoTime();
+
+        Path master = dir.resolve(HlsPlaylists.MASTER_PLAYLIST);
+        if (!Files.isRegularFile(master)) {
+            // Nothing can be played before the master playlist is written
+            return new Manifest(hlsKey, Map.of(), List.of(), List.of(), false, scannedAt);
+        }
+        files.put(HlsPlaylists.MASTER_PLAYLIST, master);
+        String masterContent = Files.readString(master);
+        boolean finished = true;
+
+        // Older uploads have a single media playlist in place of the master
+        if (!HlsPlaylists.parseMediaPlaylist(masterContent).isEmpty()) {
+            finished = indexMediaPlaylist(dir, HlsPlaylists.MASTER_PLAYLIST, masterContent, files, media, missing);
+        }
+        for (String line : masterContent.split("\r?\n")) {
+            String uri = line.trim();
+            if (uri.isEmpty() || uri.startsWith("#") || !uri.endsWith(".m3u8")) {
+                continue;
+            }
+            String relative = relativize(dir, "", uri);
+            if (relative == null) {
+                logger.warn("HLS output {} lists a playlist outside its directory: {}", hlsKey, uri);
+                continue;
+            }
+            Path playlist = dir.resolve(relative);
+            if (!Files.isRegularFile(playlist)) {
+                missing.add(relative);
+                finished = false;
+                continue;
+            }
+            files.put(relative, playlist);
+            finished &= indexMediaPlaylist(dir, relative, Files.readString(playlist), files, media, missing);
+        }
+        return new Manifest(hlsKey, Collections.unmodifiableMap(files), List.copyOf(media), List.copyOf(missing),
+                finished, scannedAt);
+    }
+
+    // Returns whether the playlist is final, i.e. ends with ENDLIST
+    private boolean indexMediaPlaylist(Path dir, String playlistPath, String content, Map<String, Path> files,
+                                       List<MediaPlaylist> media, List<String> missing) {
+        int slash = playlistPath.lastIndexOf('/');
+        String base = slash < 0 ? "" : playlistPath.substring(0, slash + 1);
+        List<String> segments = new ArrayList<>();
+        for (HlsPlaylists.Segment segment : HlsPlaylists.parseMediaPlaylist(content)) {
+            String relative = relativize(dir, base, segment.uri());
+            if (relative == null) {
+                continue;
+            }
+            Path file = dir.resolve(relative);
+            if (Files.isRegularFile(file)) {
+                files.put(relative, file);
+                segments.add(relative);
+            } else {
+                missing.add(relative);
+            }
+        }
+        media.add(new MediaPlaylist(playlistPath, List.copyOf(segments)));
+        return content.contains(ENDLIST);
+    }
+
+    // The path of a playlist URI relative to the output directory, or null if it is absolute, a URL
+    // or leaves the directory
+    private static String relativize(Path dir, String base, String uri) {
+        if (uri.contains(":") || uri.startsWith("/") || uri.contains("\\")) {
+            return null;
+        }
+        Path resolved = dir.resolve(base + uri).normalize();
+        if (!resolved.startsWith(dir) || resolved.equals(dir)) {
+            return null;
+        }
+        return dir.relativize(resolved).toString().replace('\\', '/');
+    }
+
+    private List<String> outputDirectories() {
+        List<String> keys = new ArrayList<>();
+        if (!Files.isDirectory(hlsRoot)) {
+            return keys;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(hlsRoot, Files::isDirectory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (isValidKey(name)) {
+                    keys.add(name);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list HLS output directories in {}", hlsRoot, e);
+        }
+        return keys;
+    }
+
+    private boolean transcoding(String videoId) {
+        return transcodeJobRepository.findFirstByVideoIdOrderByCreatedAtDesc(videoId)
+                .map(TranscodeJob::getStatus)
+                .filter(ACTIVE::contains)
+                .isPresent();
+    }
+
+    // The newest change anywhere in the output; the directory's own time misses writes to renditions
+    private static FileTime lastModified(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir, 3)) {
+            return paths.map(path -> {
+                try {
+                    return Files.getLastModifiedTime(path);
+                } catch (IOException e) {
+                    // Removed while walking
+                    return FileTime.fromMillis(0);
+                }
+            }).max(Comparator.naturalOrder()).orElse(FileTime.fromMillis(0));
+        }
+    }
+
+    private void delete(String hlsKey, Path dir, String reason) {
+        remove(hlsKey);
+        if (FileSystemUtils.deleteRecursively(dir.toFile())) {
+            removedOutputs.increment();
+            logger.info("Removed HLS output {}: {}", hlsKey, reason);
+        }
+    }
+
+    /**
+     * One indexed output. {@code files} maps every servable path, relative to the output
+     * directory, to its file; {@code missing} lists paths the playlists reference that are not on
+     * disk. An output is {@code finished} once every media playlist carries ENDLIST.
+     */
+    public record Manifest(String hlsKey, Map<String, Path> files, List<MediaPlaylist> mediaPlaylists,
+                           List<String> missing, boolean finished, long scannedAtNanos) {
+
+        /** Finished with nothing missing: a miss can be answered without looking at the disk. */
+        public boolean complete() {
+            return finished && missing.isEmpty();
+        }
+    }
+
+    public record MediaPlaylist(String path, List<String> segments) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.transcode.Transcoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pre-sized JPEG variants of each video's thumbnail, stored under
+ * {@code {upload-dir}/thumbnails/{videoId}/{width}.jpg}. Variants are produced by the transcode
+ * job and otherwise on first request; videos uploaded without a thumbnail get a poster frame
+ * extracted with ffmpeg.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+    private static final String POSTER = "poster.jpg";
+    private static final Duration POSTER_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Path uploadDir;
+    private final Path thumbnailDir;
+    private final int[] widths;
+    private final float quality;
+    private final String ffmpegPath;
+    private final ReentrantLock[] locks = new ReentrantLock[32];
+
+    public ThumbnailService(@Value("${file.upload-dir}") String uploadDir,
+                            @Value("${video.thumbnail.widths:160,320,640}") int[] widths,
+                            @Value("${video.thumbnail.quality:0.85}") float quality,
+                            @Value("${video.ffmpeg.path:ffmpeg}") String ffmpegPath) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.thumbnailDir = this.uploadDir.resolve("thumbnails");
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).sorted().distinct().toArray();
+        this.quality = quality;
+        this.ffmpegPath = ffmpegPath;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        if (this.widths.length == 0) {
+            throw new IllegalArgumentException("video.thumbnail.widths must list at least one positive width");
+        }
+    }
+
+    /**
+     * Snaps a requested width to the smallest configured variant that is at least as wide, so
+     * arbitrary {@code ?w=} values cannot multiply the number of stored files.
+     */
+    public int resolveWidth(int requested) {
+        for (int width : widths) {
+            if (width >= requested) {
+                return width;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    public Path variant(Video video, int requestedWidth) throws IOException {
+        int width = resolveWidth(requestedWidth);
+        Path target = variantPath(video.getVideoId(), width);
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        ReentrantLock lock = lockFor(video.getVideoId());
+        lock.lock();
+        try {
+            if (!Files.exists(target)) {
+                BufferedImage source = readSource(video);
+                writeVariant(source, width, target);
+            }
+            return target;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The uploaded thumbnail, or the extracted poster frame when none was uploaded. */
+    public Path original(Video video) throws FileNotFoundException {
+        Path source = StringUtils.hasText(video.getThumbnailUrl())
+                ? uploadDir.resolve(video.getThumbnailUrl())
+                : posterPath(video);
+        if (!Files.isReadable(source)) {
+            throw new FileNotFoundException("No thumbnail or poster frame for videoId: " + video.getVideoId());
+        }
+        return source;
+    }
+
+    /**
+     * Extracts the poster frame for the video's content if it is missing, then writes every
+     * configured variant from a single decode of the source image. The poster is kept even when a
+     * thumbnail was uploaded, because later uploads of the same content may come without one.
+     */
+    public void generate(Transcoder.Session session, Video video, Path videoPath, double durationSeconds) throws IOException, InterruptedException {
+        Path poster = posterPath(video);
+        Files.createDirectories(poster.getParent());
+        if (!Files.exists(poster)) {
+            extractPoster(session, videoPath, durationSeconds, poster);
+        }
+
+        ReentrantLock lock = lockFor(video.getVideoId());
+        lock.lock();
+        try {
+            BufferedImage source = readSource(video);
+            for (int width : widths) {
+                writeVariant(source, width, variantPath(video.getVideoId(), width));
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Generated {} thumbnail variants for videoId: {}", widths.length, video.getVideoId());
+    }
+
+    /**
+     * Removes the video's variants, and the poster frame as well when no other video shares its
+     * content.
+     */
+    public void delete(Video video, boolean lastReference) {
+        Path dir = thumbnailDir.resolve(video.getVideoId());
+        try {
+            for (int width : widths) {
+                Files.deleteIfExists(variantPath(video.getVideoId(), width));
+            }
+            if (lastReference) {
+                Files.deleteIfExists(posterPath(video));
+                Files.deleteIfExists(posterPath(video).getParent());
+            }
+            if (Files.isDirectory(dir) && isEmpty(dir)) {
+                Files.deleteIfExists(dir);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove thumbnails for videoId: {}", video.getVideoId(), e);
+        }
+    }
+
+    private static boolean isEmpty(Path dir) throws IOException {
+        try (var entries = Files.list(dir)) {
+            return entries.findAny().isEmpty();
+        }
+    }
+
+    private BufferedImage readSource(Video video) throws IOException {
+        Path source = original(video);
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported thumbnail image format: " + source.getFileName());
+        }
+        return image;
+    }
+
+    // Runs through the transcode's session, so cancelling the job also stops the frame grab
+    private void extractPoster(Transcoder.Session session, Path videoPath, double durationSeconds, Path target) throws IOException, InterruptedException {
+        // A frame a little way in avoids black or fade-in openings
+        double at = durationSeconds > 0 ? Math.min(3.0, durationSeconds / 3) : 0;
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp.jpg");
+        try {
+            session.exec(List.of(ffmpegPath, "-hide_banner", "-loglevel", "error", "-y",
+                    "-ss", String.format(Locale.ROOT, "%.3f", at),
+                    "-i", videoPath.toString(),
+                    "-frames:v", "1", "-q:v", "3",
+                    "-vf", "scale='min(" + widths[widths.length - 1] * 2 + ",iw)':-2",
+                    temp.toString()), POSTER_TIMEOUT);
+            if (!Files.exists(temp)) {
+                throw new IOException("Poster frame extraction produced no image for " + videoPath.getFileName());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeVariant(BufferedImage source, int width, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        BufferedImage scaled = scale(source, width);
+        // The image stream writes in place without truncating, so never reuse a stale temp file
+        Files.deleteIfExists(temp);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Halves in steps before the final resize; a single bilinear pass over a large ratio aliases badly
+    static BufferedImage scale(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = currentWidth == targetWidth ? targetHeight : Math.max(targetHeight, currentHeight / 2);
+            // JPEG has no alpha: flatten onto white so transparent PNGs do not turn black
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, currentWidth, currentHeight);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth > targetWidth);
+        return current;
+    }
+
+    // Posters come from the video bytes, so deduplicated uploads share the one under their HLS key
+    private Path posterPath(Video video) {
+        return thumbnailDir.resolve(video.resolveHlsKey()).resolve(POSTER);
+    }
+
+    private Path variantPath(String videoId, int width) {
+        return thumbnailDir.resolve(videoId).resolve(width + ".jpg");
+    }
+
+    private ReentrantLock lockFor(String videoId) {
+        return locks[Math.floorMod(videoId.hashCode(), locks.length)];
+    }
+}
@@ -0,0 +1,32 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.transcode.TranscodeProgress;
+
+import java.util.Optional;
+
+public interface TranscodeJobService {
+
+    TranscodeJob submit(String videoId);
+
+    void ensureCapacity();
+
+    Optional<TranscodeJob> getLatestJob(String videoId);
+
+    /** Whether a queued or running job will publish the HLS output stored under {@code hlsKey}. */
+    boolean hasPendingJob(String hlsKey);
+
+    long getQueueDepth();
+
+    int getActiveWorkers();
+
+    /** Live encoder progress of a RUNNING job; empty for any other state. */
+    Optional<TranscodeProgress> getProgress(TranscodeJob job);
+
+    /**
+     * Cancels the latest job for {@code videoId}, whether it is still queued or already running.
+     * Returns {@code false} when there is no such job, it has already finished, or it is running on
+     * another node.
+     */
+    boolean cancel(String videoId);
+}
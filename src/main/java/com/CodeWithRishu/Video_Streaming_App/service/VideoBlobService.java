@@ -0,0 +1,83 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.VideoBlob;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Reference-counted index from content hash to stored file and HLS output, so identical uploads
+ * share one copy on disk and one transcode.
+ */
+@Service
+public class VideoBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoBlobService.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final VideoBlobRepository videoBlobRepository;
+
+    public VideoBlobService(VideoBlobRepository videoBlobRepository) {
+        this.videoBlobRepository = videoBlobRepository;
+    }
+
+    /**
+     * Takes a reference on the blob for {@code stored}'s hash, creating it from {@code stored} and
+     * {@code hlsKey} when the content is new. When an existing blob is returned the caller owns a
+     * redundant copy of the file and should discard it.
+     */
+    public BlobRef acquire(FileStorageService.StoredFile stored, String hlsKey) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (videoBlobRepository.acquire(stored.sha256()) == 1) {
+                VideoBlob existing = videoBlobRepository.findById(stored.sha256()).orElse(null);
+                if (existing != null) {
+                    logger.info("Upload matches stored blob {} ({} references)", stored.sha256(), existing.getRefCount());
+                    return new BlobRef(existing.getFilePath(), existing.getHlsKey(), true);
+                }
+                // Released and removed between the two statements; start again
+                continue;
+            }
+
+            VideoBlob blob = VideoBlob.builder()
+                    .sha256(stored.sha256())
+                    .filePath(stored.fileName())
+                    .size(stored.size())
+                    .refCount(1)
+                    .hlsKey(hlsKey)
+                    .createdAt(Instant.now())
+                    .build();
+            try {
+                videoBlobRepository.saveAndFlush(blob);
+                return new BlobRef(blob.getFilePath(), blob.getHlsKey(), false);
+            } catch (DataIntegrityViolationException e) {
+                // Another upload of the same bytes inserted first, or a dying blob is still present
+                logger.debug("Concurrent insert of blob {}, retrying", stored.sha256());
+            }
+        }
+        throw new IllegalStateException("Could not register blob " + stored.sha256() + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /** The HLS key of content already stored under {@code sha256}, if any. */
+    public Optional<String> findHlsKey(String sha256) {
+        return videoBlobRepository.findById(sha256).map(VideoBlob::getHlsKey);
+    }
+
+    /**
+     * Drops one reference. Returns {@code true} when the caller held the last one (or the content
+     * predates the blob index) and must delete the file and HLS output itself.
+     */
+    public boolean release(String sha256) {
+        if (sha256 == null || videoBlobRepository.release(sha256) == 0) {
+            return true;
+        }
+        return videoBlobRepository.deleteIfUnreferenced(sha256) == 1;
+    }
+
+    public record BlobRef(String filePath, String hlsKey, boolean duplicate) {
+    }
+}
@@ -0,0 +1,410 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.cache.VideoMetadataCache;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeCancelledException;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPlaylists;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPublishedEvent;
+import com.CodeWithRishu.Video_Streaming_App.transcode.MediaInfo;
+import com.CodeWithRishu.Video_Streaming_App.transcode.PlaylistStitcher;
+import com.CodeWithRishu.Video_Streaming_App.transcode.Rendition;
+import com.CodeWithRishu.Video_Streaming_App.transcode.RenditionLadder;
+import com.CodeWithRishu.Video_Streaming_App.transcode.Transcoder;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class VideoProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoProcessingService.class);
+    private static final String WORK_DIR = ".work";
+    private static final String CHUNK_LIST = "chunks.csv";
+    private static final Duration PROBE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final VideoRepository videoRepository;
+    private final RenditionLadder renditionLadder;
+    private final HlsSegmentCache hlsSegmentCache;
+    private final VideoMetadataCache videoMetadataCache;
+    private final ThumbnailService thumbnailService;
+    private final Transcoder transcoder;
+    private final VideoMetrics videoMetrics;
+    private final HlsSegmentStore hlsSegmentStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String uploadDir;
+    private final String hslDir;
+    private final String ffprobePath;
+    private final int ffmpegThreads;
+    private final int segmentSeconds;
+    private final boolean segmented;
+    private final int chunkSeconds;
+    private final int chunkParallelism;
+    private final ExecutorService chunkExecutor;
+
+    public VideoProcessingService(VideoRepository videoRepository,
+                                  RenditionLadder renditionLadder,
+                                  HlsSegmentCache hlsSegmentCache,
+                                  VideoMetadataCache videoMetadataCache,
+                                  ThumbnailService thumbnailService,
+                                  Transcoder transcoder,
+                                  VideoMetrics videoMetrics,
+                                  HlsSegmentStore hlsSegmentStore,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${file.upload-dir}") String uploadDir,
+                                  @Value("${file.video.hsl-dir}") String hslDir,
+                                  @Value("${video.ffprobe.path:ffprobe}") String ffprobePath,
+                                  @Value("${video.ffmpeg.threads:0}") int ffmpegThreads,
+                                  @Value("${video.hls.segment-seconds:6}") int segmentSeconds,
+                                  @Value("${video.transcode.mode:single}") String mode,
+                                  @Value("${video.transcode.chunk-seconds:60}") int chunkSeconds,
+                                  @Value("${video.transcode.chunk-parallelism:0}") int chunkParallelism) {
+        this.videoRepository = videoRepository;
+        this.renditionLadder = renditionLadder;
+        this.hlsSegmentCache = hlsSegmentCache;
+        this.videoMetadataCache = videoMetadataCache;
+        this.thumbnailService = thumbnailService;
+        this.transcoder = transcoder;
+        this.videoMetrics = videoMetrics;
+        this.hlsSegmentStore = hlsSegmentStore;
+        this.eventPublisher = eventPublisher;
+        this.uploadDir = uploadDir;
+        this.hslDir = hslDir;
+        this.ffprobePath = ffprobePath;
+        this.ffmpegThreads = ffmpegThreads;
+        this.segmentSeconds = segmentSeconds;
+        this.segmented = "segmented".equalsIgnoreCase(mode);
+        // Whole multiples of the segment length, so only a chunk's last segment can come up short
+        this.chunkSeconds = Math.max(1, chunkSeconds / segmentSeconds) * segmentSeconds;
+        this.chunkParallelism = chunkParallelism > 0 ? chunkParallelism : Runtime.getRuntime().availableProcessors();
+
+        // Shared by every transcode job, so concurrent jobs together never run more encoders than this
+        AtomicInteger counter = new AtomicInteger();
+        this.chunkExecutor = Executors.newFixedThreadPool(this.chunkParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "transcode-chunk-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    public void transcode(String videoId) {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new RuntimeException("video not found: " + videoId));
+
+        Path videoPath = Paths.get(uploadDir, video.getFilePath());
+        Timer.Sample sample = videoMetrics.startTimer();
+        String mode = "single";
+        String outcome = "failure";
+
+        try {
+            String hlsKey = video.resolveHlsKey();
+            Path outputPath = Paths.get(hslDir, hlsKey);
+
+            // Output is rewritten in place, so drop the old validators before ffmpeg touches it
+            if (video.getHlsVersion() != null) {
+                unpublish(hlsKey);
+            }
+
+            // Keyed by videoId, which is what the status and cancel endpoints know the job by. Opened
+            // before the probe, so a cancel during probing or poster extraction stops the job too.
+            try (Transcoder.Session session = transcoder.open(videoId)) {
+                MediaInfo source = probe(session, videoPath);
+                session.setMediaSeconds(source.durationSeconds());
+                generateThumbnails(session, video, videoPath, source);
+                List<Rendition> renditions = renditionLadder.forSource(source.width(), source.height());
+                for (Rendition rendition : renditions) {
+                    Files.createDirectories(outputPath.resolve(rendition.name()));
+                }
+
+                if (segmented && source.durationSeconds() >= 2.0 * chunkSeconds) {
+                    mode = "segmented";
+                    logger.info("Executing segmented FFmpeg for videoId: {} with renditions {} in {}s chunks", videoId,
+                            renditions.stream().map(Rendition::name).toList(), chunkSeconds);
+                    transcodeSegmented(session, videoPath, outputPath, hlsKey, renditions, source.hasAudio());
+                } else {
+                    logger.info("Executing FFmpeg for videoId: {} with renditions {}", videoId,
+                            renditions.stream().map(Rendition::name).toList());
+                    session.run(ladderCommand(videoPath, outputPath, renditions, source.hasAudio(), 0, ffmpegThreads),
+                            source.durationSeconds());
+                    HlsPlaylists.writeAtomically(outputPath.resolve(HlsPlaylists.MASTER_PLAYLIST),
+                            HlsPlaylists.masterPlaylist(renditions, source.hasAudio()));
+                }
+            }
+
+            hlsSegmentCache.invalidate(hlsKey);
+            publish(hlsKey);
+            outcome = "success";
+            logger.info("Video processing completed successfully for videoId: {}", videoId);
+
+        } catch (TranscodeCancelledException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (IOException ex) {
+            logger.error("IOException during video processing for videoId: {}", videoId, ex);
+            throw new RuntimeException("Video processing failed: " + ex.getMessage(), ex);
+        } catch (InterruptedException e) {
+            logger.error("InterruptedException during video processing for videoId: {}", videoId, e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Video processing was interrupted", e);
+        } finally {
+            videoMetrics.recordTranscode(sample, mode, outcome);
+        }
+    }
+
+    /**
+     * Splits the source at keyframes into chunks of about {@code chunk-seconds} without
+     * re-encoding, transcodes the chunks in parallel on the shared chunk pool, and stitches their
+     * segments into one continuous playlist per rendition. Each chunk's timestamps are shifted by
+     * its start time so the stitched stream has no discontinuities. The playlists are published as
+     * EVENT playlists as soon as the leading chunks are done, so playback can start before the
+     * whole video is encoded.
+     */
+    private void transcodeSegmented(Transcoder.Session session, Path videoPath, Path outputPath, String hlsKey, List<Rendition> renditions,
+                                    boolean hasAudio) throws IOException, InterruptedException {
+        Path workDir = outputPath.resolve(WORK_DIR);
+        FileSystemUtils.deleteRecursively(workDir);
+        Files.createDirectories(workDir);
+        try {
+            List<Chunk> chunks = split(session, videoPath, workDir);
+            PlaylistStitcher stitcher = new PlaylistStitcher(outputPath, renditions, segmentSeconds);
+            AtomicBoolean masterWritten = new AtomicBoolean();
+            // Divide the cores between the encoders that run side by side
+            int share = Math.max(1, Runtime.getRuntime().availableProcessors() / Math.min(chunkParallelism, chunks.size()));
+            int threads = ffmpegThreads > 0 ? Math.min(ffmpegThreads, share) : share;
+
+            List<Future<?>> futures = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                futures.add(chunkExecutor.submit(() -> {
+                    Path chunkDir = workDir.resolve(chunk.name() + ".hls");
+                    for (Rendition rendition : renditions) {
+                        Files.createDirectories(chunkDir.resolve(rendition.name()));
+                    }
+                    session.run(ladderCommand(chunk.path(), chunkDir, renditions, hasAudio, chunk.start(), threads),
+                            chunk.duration());
+                    if (stitcher.chunkDone(chunk.index(), chunkDir) > 0) {
+                        if (masterWritten.compareAndSet(false, true)) {
+                            HlsPlaylists.writeAtomically(outputPath.resolve(HlsPlaylists.MASTER_PLAYLIST),
+                                    HlsPlaylists.masterPlaylist(renditions, hasAudio));
+                        }
+                        for (Rendition rendition : renditions) {
+                            hlsSegmentCache.evict(HlsSegmentCache.key(hlsKey, rendition.name() + "/" + HlsPlaylists.MEDIA_PLAYLIST));
+                        }
+                        hlsSegmentStore.refresh(hlsKey);
+                    }
+                    logger.debug("Transcoded chunk {}/{} for {}", chunk.index() + 1, chunks.size(), hlsKey);
+                    return null;
+                }));
+            }
+            await(futures);
+            stitcher.complete(chunks.size());
+        } finally {
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+    }
+
+    // One failed or interrupted chunk cancels the rest; cancelling interrupts the session's run,
+    // which kills that chunk's ffmpeg
+    private static void await(List<Future<?>> futures) throws IOException, InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+
+    private List<Chunk> split(Transcoder.Session session, Path input, Path workDir) throws IOException, InterruptedException {
+        Path list = workDir.resolve(CHUNK_LIST);
+        session.run(List.of("-y", "-i", input.toString(),
+                "-map", "0:v:0", "-map", "0:a:0?", "-c", "copy",
+                "-f", "segment",
+                "-segment_time", String.valueOf(chunkSeconds),
+                "-reset_timestamps", "1",
+                "-segment_list", list.toString(),
+                "-segment_list_type", "csv",
+                workDir.resolve("chunk_%05d.mkv").toString()), 0);
+
+        // Each row is "file,start,end"; the segment muxer cuts on the first keyframe past each boundary
+        List<Chunk> chunks = new ArrayList<>();
+        for (String line : Files.readAllLines(list, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                continue;
+            }
+            String name = fields[0].replace("\"", "");
+            double start = parseDouble(fields[1]);
+            chunks.add(new Chunk(chunks.size(), workDir.resolve(name), name, start, Math.max(0, parseDouble(fields[2]) - start)));
+        }
+        if (chunks.isEmpty()) {
+            throw new IOException("splitting " + input.getFileName() + " produced no chunks");
+        }
+        return chunks;
+    }
+
+    // Thumbnails are a nicety: a bad image or failed poster grab must not fail the transcode
+    private void generateThumbnails(Transcoder.Session session, Video video, Path videoPath, MediaInfo source) throws InterruptedException {
+        try {
+            thumbnailService.generate(session, video, videoPath, source.durationSeconds());
+        } catch (TranscodeCancelledException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not generate thumbnails for videoId: {}", video.getVideoId(), e);
+        }
+    }
+
+    // The version is the HTTP validator for everything under videos_hsl/{hlsKey}; it changes
+    // whenever the output is regenerated, so nothing is hashed per request. Every video sharing
+    // the output is stamped at once.
+    private void publish(String hlsKey) {
+        Instant publishedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        hlsSegmentStore.refresh(hlsKey);
+        videoRepository.markHlsPublished(hlsKey, Long.toString(System.currentTimeMillis(), 36), publishedAt);
+        videoRepository.findVideoIdsByHlsKey(hlsKey).forEach(videoMetadataCache::evict);
+        eventPublisher.publishEvent(new HlsPublishedEvent(hlsKey));
+    }
+
+    private void unpublish(String hlsKey) {
+        videoRepository.markHlsPublished(hlsKey, null, null);
+        hlsSegmentStore.remove(hlsKey);
+        videoRepository.findVideoIdsByHlsKey(hlsKey).forEach(videoMetadataCache::evict);
+    }
+
+    // One decode feeds every rendition: split the video once, scale each branch, and let the HLS
+    // muxer write one media playlist per variant stream into {output}/{rendition}/. A chunk of a
+    // segmented transcode passes its start time as the offset; threads of 0 leaves it to ffmpeg.
+    private List<String> ladderCommand(Path input, Path output, List<Rendition> renditions, boolean hasAudio,
+                                       double offsetSeconds, int threads) {
+        List<String> cmd = new ArrayList<>(List.of("-y", "-i", input.toString()));
+        if (threads > 0) {
+            cmd.addAll(List.of("-threads", String.valueOf(threads)));
+        }
+        if (offsetSeconds > 0) {
+            cmd.addAll(List.of("-output_ts_offset", String.format(Locale.ROOT, "%.6f", offsetSeconds)));
+        }
+
+        StringBuilder graph = new StringBuilder("[0:v]split=").append(renditions.size());
+        for (int i = 0; i < renditions.size(); i++) {
+            graph.append("[v").append(i).append(']');
+        }
+        for (int i = 0; i < renditions.size(); i++) {
+            Rendition rendition = renditions.get(i);
+            graph.append(";[v").append(i).append("]scale=").append(rendition.width()).append(':').append(rendition.height())
+                    .append("[v").append(i).append("out]");
+        }
+        cmd.addAll(List.of("-filter_complex", graph.toString()));
+
+        StringBuilder streamMap = new StringBuilder();
+        for (int i = 0; i < renditions.size(); i++) {
+            Rendition rendition = renditions.get(i);
+            cmd.addAll(List.of("-map", "[v" + i + "out]",
+                    "-c:v:" + i, "libx264",
+                    "-b:v:" + i, rendition.videoKbps() + "k",
+                    "-maxrate:v:" + i, rendition.maxrateKbps() + "k",
+                    "-bufsize:v:" + i, (rendition.videoKbps() * 3 / 2) + "k"));
+            if (hasAudio) {
+                cmd.addAll(List.of("-map", "a:0", "-c:a:" + i, "aac", "-b:a:" + i, rendition.audioKbps() + "k"));
+            }
+            streamMap.append(i == 0 ? "" : " ").append("v:").append(i)
+                    .append(hasAudio ? ",a:" + i : "")
+                    .append(",name:").append(rendition.name());
+        }
+
+        // Identical keyframe placement across renditions so players can switch at any segment boundary
+        cmd.addAll(List.of("-preset", "veryfast",
+                "-sc_threshold", "0",
+                "-force_key_frames", "expr:gte(t,n_forced*" + segmentSeconds + ")",
+                "-f", "hls",
+                "-hls_time", String.valueOf(segmentSeconds),
+                "-hls_playlist_type", "vod",
+                "-hls_list_size", "0",
+                "-hls_segment_filename", output.resolve("%v").resolve("segment_%03d.ts").toString(),
+                "-var_stream_map", streamMap.toString(),
+                output.resolve("%v").resolve(HlsPlaylists.MEDIA_PLAYLIST).toString()));
+        return cmd;
+    }
+
+    private MediaInfo probe(Transcoder.Session session, Path input) throws IOException, InterruptedException {
+        List<String> output = session.exec(List.of(ffprobePath, "-v", "error",
+                "-show_entries", "stream=codec_type,width,height:format=duration",
+                "-of", "default=noprint_wrappers=1", input.toString()), PROBE_TIMEOUT);
+
+        int width = 0;
+        int height = 0;
+        boolean hasAudio = false;
+        double duration = 0;
+        for (String line : output) {
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = line.substring(0, eq);
+            String value = line.substring(eq + 1).trim();
+            switch (key) {
+                case "codec_type" -> hasAudio |= value.equals("audio");
+                case "width" -> width = width == 0 ? parseInt(value) : width;
+                case "height" -> height = height == 0 ? parseInt(value) : height;
+                case "duration" -> duration = parseDouble(value);
+                default -> {
+                }
+            }
+        }
+        if (height == 0) {
+            throw new IOException("ffprobe could not read a video stream from " + input.getFileName());
+        }
+        return new MediaInfo(width, height, hasAudio, duration);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record Chunk(int index, Path path, String name, double start, double duration) {
+    }
+}
@@ -1,27 +1,59 @@
 package com.CodeWithRishu.Video_Streaming_App.service;
 
+import com.CodeWithRishu.Video_Streaming_App.dto.TrendingVideoDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoPageDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoStatusDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
 import com.CodeWithRishu.Video_Streaming_App.entity.Video;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface VideoService {
 
     Video save(Video video, MultipartFile file, MultipartFile thumbnailFile);
 
+    Video saveUploaded(Video video, FileStorageService.StoredFile storedVideo, String contentType);
+
+    Video saveStream(Video video, InputStream videoStream, String fileName, String contentType, long contentLength);
+
     Video get(String videoId);
 
+    Optional<Video> find(String videoId);
+
+    boolean delete(String videoId);
+
     Video getByTitle(String title);
 
+    List<VideoMetaDataDto> search(String query, int limit);
+
+    List<TrendingVideoDto> getTrending(int limit);
+
     List<Video> getAll();
 
-    void processVideo(String videoId);
+    VideoPageDto getPage(String cursor, int limit, boolean ascending);
+
+    TranscodeJob processVideo(String videoId);
+
+    Optional<TranscodeJob> getTranscodeJob(String videoId);
+
+    Optional<VideoStatusDto> getTranscodeStatus(String videoId);
+
+    boolean cancelTranscode(String videoId);
 
     Resource getThumbnailResource(String videoId) throws FileNotFoundException;
 
+    Resource getThumbnailResource(String videoId, int width) throws IOException;
+
     Resource getVideoResource(String videoId) throws FileNotFoundException;
 
     Resource getHlsResource(String videoId, String fileName) throws FileNotFoundException;
+
+    Resource getHlsResource(String videoId, String rendition, String fileName) throws FileNotFoundException;
 }
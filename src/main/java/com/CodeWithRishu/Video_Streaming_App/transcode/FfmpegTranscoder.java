@@ -0,0 +1,305 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeCancelledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs ffmpeg directly from an argument vector, so no shell or path quoting is involved on any
+ * platform. Machine-readable progress is read from {@code -progress pipe:1}; the error output is
+ * kept as a short tail for failure messages instead of being copied to the application's console.
+ * Every invocation is bounded by {@code video.ffmpeg.timeout}. Other tools a job runs, such as
+ * ffprobe, go through the same session so a cancel reaches them too.
+ */
+@Component
+public class FfmpegTranscoder implements Transcoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FfmpegTranscoder.class);
+    // Covers the moment between a job being claimed and its session opening
+    private static final long PENDING_CANCEL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String ffmpegPath;
+    private final Duration timeout;
+    private final int stderrLines;
+    private final ConcurrentHashMap<String, FfmpegSession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> pendingCancels = new ConcurrentHashMap<>();
+
+    public FfmpegTranscoder(@Value("${video.ffmpeg.path:ffmpeg}") String ffmpegPath,
+                            @Value("${video.ffmpeg.timeout:2h}") Duration timeout,
+                            @Value("${video.ffmpeg.stderr-lines:20}") int stderrLines) {
+        this.ffmpegPath = ffmpegPath;
+        this.timeout = timeout;
+        this.stderrLines = Math.max(1, stderrLines);
+    }
+
+    @Override
+    public Session open(String key) {
+        FfmpegSession session = new FfmpegSession(key);
+        if (sessions.putIfAbsent(key, session) != null) {
+            throw new IllegalStateException("A transcode is already running for " + key);
+        }
+        // Registered first, so a cancel either finds the session or left its mark here already
+        Long pending = pendingCancels.remove(key);
+        if (pending != null && System.nanoTime() - pending < PENDING_CANCEL_NANOS) {
+            session.cancel();
+        }
+        return session;
+    }
+
+    @Override
+    public Optional<TranscodeProgress> progress(String key) {
+        return Optional.ofNullable(sessions.get(key)).map(FfmpegSession::snapshot);
+    }
+
+    @Override
+    public boolean cancel(String key) {
+        FfmpegSession session = sessions.get(key);
+        if (session == null) {
+            pendingCancels.put(key, System.nanoTime());
+            // The session may have opened after the lookup without seeing the mark
+            session = sessions.get(key);
+            if (session == null) {
+                logger.info("Holding cancel for {} until its transcode starts", key);
+                return false;
+            }
+            pendingCancels.remove(key);
+        }
+        session.cancel();
+        return true;
+    }
+
+    /**
+     * Applies one {@code key=value} line of ffmpeg's progress output. Returns {@code true} at the end
+     * of a report block, which is when the values form a consistent snapshot.
+     */
+    static boolean parseProgressLine(String line, Invocation invocation) {
+        int eq = line.indexOf('=');
+        if (eq < 0) {
+            return false;
+        }
+        String key = line.substring(0, eq).trim();
+        String value = line.substring(eq + 1).trim();
+        if (value.equals("N/A")) {
+            return false;
+        }
+        try {
+            switch (key) {
+                // out_time_ms is also in microseconds; older builds only print that one
+                case "out_time_us", "out_time_ms" -> invocation.pendingSeconds = Long.parseLong(value) / 1_000_000.0;
+                case "fps" -> invocation.pendingFps = Double.parseDouble(value);
+                case "speed" -> invocation.pendingSpeed = Double.parseDouble(value.endsWith("x")
+                        ? value.substring(0, value.length() - 1) : value);
+                case "progress" -> {
+                    invocation.encodedSeconds = Math.max(invocation.encodedSeconds, invocation.pendingSeconds);
+                    invocation.fps = value.equals("end") ? 0 : invocation.pendingFps;
+                    invocation.speed = value.equals("end") ? 0 : invocation.pendingSpeed;
+                    return true;
+                }
+                default -> {
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Leave the last good value in place
+        }
+        return false;
+    }
+
+    /** Progress of one running ffmpeg process, written by its reader thread. */
+    static final class Invocation {
+        final double mediaSeconds;
+        volatile double encodedSeconds;
+        volatile double fps;
+        volatile double speed;
+        private double pendingSeconds;
+        private double pendingFps;
+        private double pendingSpeed;
+
+        Invocation(double mediaSeconds) {
+            this.mediaSeconds = mediaSeconds;
+        }
+    }
+
+    private final class FfmpegSession implements Session {
+
+        private final String key;
+        private final long startedNanos = System.nanoTime();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Process, Invocation> running = new HashMap<>();
+        private double mediaSeconds;
+        private double completedSeconds;
+        private volatile boolean cancelled;
+
+        FfmpegSession(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void setMediaSeconds(double mediaSeconds) {
+            lock.lock();
+            try {
+                this.mediaSeconds = mediaSeconds;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run(List<String> args, double invocationSeconds) throws IOException, InterruptedException {
+            List<String> command = new ArrayList<>(args.size() + 6);
+            command.addAll(List.of(ffmpegPath, "-hide_banner", "-nostats", "-progress", "pipe:1"));
+            command.addAll(args);
+
+            Invocation invocation = new Invocation(invocationSeconds);
+            execute(command, invocation, timeout, line -> parseProgressLine(line, invocation));
+        }
+
+        @Override
+        public List<String> exec(List<String> command, Duration limit) throws IOException, InterruptedException {
+            List<String> output = new ArrayList<>();
+            // Read by the output thread, which is joined before this returns
+            execute(command, new Invocation(0), limit, output::add);
+            return output;
+        }
+
+        private void execute(List<String> command, Invocation invocation, Duration limit, Consumer<String> output)
+                throws IOException, InterruptedException {
+            String name = Path.of(command.get(0)).getFileName().toString();
+            Deque<String> errors = new ArrayDeque<>(stderrLines);
+            Process process;
+            lock.lock();
+            try {
+                checkCancelled();
+                process = new ProcessBuilder(command).start();
+                running.put(process, invocation);
+            } finally {
+                lock.unlock();
+            }
+
+            boolean succeeded = false;
+            try {
+                process.getOutputStream().close();
+                Thread outputReader = Thread.ofVirtual().name(name + "-output-" + key).start(() -> readOutput(process, output));
+                Thread errorReader = Thread.ofVirtual().name(name + "-stderr-" + key).start(() -> readErrors(process, name, errors));
+
+                // waitFor is interruptible where the pipe reads are not; the finally block kills the process
+                boolean exited = process.waitFor(limit.toMillis(), TimeUnit.MILLISECONDS);
+                if (!exited) {
+                    destroy(process);
+                }
+                outputReader.join();
+                errorReader.join();
+                if (!exited) {
+                    throw new IOException(name + " timed out after " + limit + tail(errors));
+                }
+
+                checkCancelled();
+                if (process.exitValue() != 0) {
+                    throw new IOException(name + " exited with code " + process.exitValue() + tail(errors));
+                }
+                succeeded = true;
+            } finally {
+                destroy(process);
+                lock.lock();
+                try {
+                    running.remove(process);
+                    if (succeeded) {
+                        completedSeconds += invocation.mediaSeconds;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                running.keySet().forEach(FfmpegTranscoder::destroy);
+            } finally {
+                lock.unlock();
+            }
+            logger.info("Cancelled transcode for {}", key);
+        }
+
+        TranscodeProgress snapshot() {
+            lock.lock();
+            try {
+                double encoded = completedSeconds;
+                double fps = 0;
+                double speed = 0;
+                for (Invocation invocation : running.values()) {
+                    encoded += Math.min(invocation.encodedSeconds, invocation.mediaSeconds);
+                    fps += invocation.fps;
+                    speed += invocation.speed;
+                }
+                double percent = mediaSeconds > 0 ? Math.min(100.0, encoded * 100 / mediaSeconds) : 0;
+                return new TranscodeProgress(percent, fps, speed, Duration.ofNanos(System.nanoTime() - startedNanos));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            sessions.remove(key, this);
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new TranscodeCancelledException("Transcode was cancelled for " + key);
+            }
+        }
+
+        private void readOutput(Process process, Consumer<String> output) {
+            try (BufferedReader reader = process.inputReader(StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.accept(line);
+                }
+            } catch (IOException e) {
+                // The process was destroyed; the exit code tells the rest
+            }
+        }
+
+        private void readErrors(Process process, String name, Deque<String> errors) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("{} [{}]: {}", name, key, line);
+                    if (errors.size() == stderrLines) {
+                        errors.removeFirst();
+                    }
+                    errors.addLast(line);
+                }
+            } catch (IOException e) {
+                // The process was destroyed; the exit code tells the rest
+            }
+        }
+
+        // Only read once the reader thread has been joined
+        private static String tail(Deque<String> errors) {
+            return errors.isEmpty() ? "" : ": " + String.join("\n", errors);
+        }
+    }
+
+    // ffmpeg has no children of its own, but a wrapper script might
+    private static void destroy(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
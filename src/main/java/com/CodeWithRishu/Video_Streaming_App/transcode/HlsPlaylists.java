@@ -0,0 +1,97 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public interface HlsPlaylists {
+
+    String MASTER_PLAYLIST = "master.m3u8";
+    String MEDIA_PLAYLIST = "index.m3u8";
+    String VERSION_PARAM = "v";
+
+    static String masterPlaylist(List<Rendition> renditions, boolean withAudio) {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+        for (Rendition rendition : renditions) {
+            playlist.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(rendition.bandwidth(withAudio))
+                    .append(",RESOLUTION=").append(rendition.width()).append('x').append(rendition.height())
+                    .append('\n')
+                    .append(rendition.name()).append('/').append(MEDIA_PLAYLIST).append('\n');
+        }
+        return playlist.toString();
+    }
+
+    /**
+     * Renders a media playlist. An incomplete playlist is an EVENT playlist without ENDLIST, so
+     * players start from the top and keep polling for appended segments.
+     */
+    static String mediaPlaylist(List<Segment> segments, int targetDuration, boolean complete) {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n")
+                .append("#EXT-X-TARGETDURATION:").append(targetDuration).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:0\n")
+                .append("#EXT-X-PLAYLIST-TYPE:").append(complete ? "VOD" : "EVENT").append('\n');
+        for (Segment segment : segments) {
+            playlist.append(String.format(Locale.ROOT, "#EXTINF:%.6f,%n", segment.duration()))
+                    .append(segment.uri()).append('\n');
+        }
+        if (complete) {
+            playlist.append("#EXT-X-ENDLIST\n");
+        }
+        return playlist.toString();
+    }
+
+    static List<Segment> parseMediaPlaylist(String content) {
+        List<Segment> segments = new ArrayList<>();
+        Double duration = null;
+        for (String raw : content.split("\r?\n")) {
+            String line = raw.trim();
+            if (line.startsWith("#EXTINF:")) {
+                int comma = line.indexOf(',');
+                duration = Double.parseDouble(line.substring("#EXTINF:".length(), comma < 0 ? line.length() : comma));
+            } else if (!line.isEmpty() && !line.startsWith("#") && duration != null) {
+                segments.add(new Segment(line, duration));
+                duration = null;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Tags every segment URI with the published HLS version. A re-transcode rewrites segments in
+     * place, so only a URI that names its version may be cached as immutable.
+     */
+    static String versionSegmentUris(String content, String version) {
+        StringBuilder playlist = new StringBuilder(content.length() + 64);
+        for (String line : content.split("\r?\n")) {
+            playlist.append(line);
+            if (!line.startsWith("#") && line.endsWith(".ts")) {
+                playlist.append('?').append(VERSION_PARAM).append('=').append(version);
+            }
+            playlist.append('\n');
+        }
+        return playlist.toString();
+    }
+
+    static Resource versionSegmentUris(Resource playlist, String version) throws IOException {
+        String content = playlist.getContentAsString(StandardCharsets.UTF_8);
+        return new ByteArrayResource(versionSegmentUris(content, version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Readers polling a playlist must never see a half-written file
+    static void writeAtomically(Path target, String content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    record Segment(String uri, double duration) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+/** Published once a transcode has written the complete HLS output under {@code hlsKey}. */
+public record HlsPublishedEvent(String hlsKey) {
+}
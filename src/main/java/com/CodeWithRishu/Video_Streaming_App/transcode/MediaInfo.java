@@ -0,0 +1,4 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+public record MediaInfo(int width, int height, boolean hasAudio, double durationSeconds) {
+}
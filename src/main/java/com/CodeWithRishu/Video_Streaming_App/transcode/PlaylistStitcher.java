@@ -0,0 +1,109 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assembles the HLS output of independently transcoded chunks into one continuous playlist per
+ * rendition. Chunks may finish in any order; each contiguous run from the start is renumbered
+ * into {output}/{rendition}/segment_NNN.ts and published immediately.
+ *
+ * <p>TARGETDURATION is fixed when the stitcher is created: players read it once and it must not
+ * change while the playlist is appended to.
+ */
+public class PlaylistStitcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistStitcher.class);
+    // Keyframes are forced every segmentSeconds, but a cut lands on the first frame at or after it
+    private static final int KEYFRAME_SLACK_SECONDS = 1;
+
+    private final Path output;
+    private final List<Rendition> renditions;
+    private final Map<Integer, Path> finished = new HashMap<>();
+    private final Map<String, List<HlsPlaylists.Segment>> published = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int nextChunk;
+    private final int targetDuration;
+
+    public PlaylistStitcher(Path output, List<Rendition> renditions, int segmentSeconds) {
+        this.output = output;
+        this.renditions = renditions;
+        this.targetDuration = targetDuration(segmentSeconds);
+        for (Rendition rendition : renditions) {
+            published.put(rendition.name(), new ArrayList<>());
+        }
+    }
+
+    /**
+     * Records that chunk {@code index} was transcoded into {@code chunkDir} and publishes every
+     * chunk that is now next in line. Returns the number of chunks published so far.
+     */
+    public int chunkDone(int index, Path chunkDir) throws IOException {
+        lock.lock();
+        try {
+            finished.put(index, chunkDir);
+            boolean appended = false;
+            while (finished.containsKey(nextChunk)) {
+                append(finished.remove(nextChunk));
+                nextChunk++;
+                appended = true;
+            }
+            if (appended) {
+                writePlaylists(false);
+            }
+            return nextChunk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void complete(int chunkCount) throws IOException {
+        lock.lock();
+        try {
+            if (nextChunk != chunkCount) {
+                throw new IOException("Only " + nextChunk + " of " + chunkCount + " chunks were published");
+            }
+            writePlaylists(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(Path chunkDir) throws IOException {
+        for (Rendition rendition : renditions) {
+            Path source = chunkDir.resolve(rendition.name());
+            Path target = output.resolve(rendition.name());
+            Files.createDirectories(target);
+            List<HlsPlaylists.Segment> segments = published.get(rendition.name());
+            String chunkPlaylist = Files.readString(source.resolve(HlsPlaylists.MEDIA_PLAYLIST), StandardCharsets.UTF_8);
+            for (HlsPlaylists.Segment segment : HlsPlaylists.parseMediaPlaylist(chunkPlaylist)) {
+                String name = String.format(Locale.ROOT, "segment_%03d.ts", segments.size());
+                Files.move(source.resolve(segment.uri()), target.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                segments.add(new HlsPlaylists.Segment(name, segment.duration()));
+                if (Math.round(segment.duration()) > targetDuration) {
+                    logger.warn("Segment {}/{} is {}s, longer than the playlist's target duration of {}s",
+                            rendition.name(), name, segment.duration(), targetDuration);
+                }
+            }
+        }
+    }
+
+    static int targetDuration(double segmentSeconds) {
+        return (int) Math.ceil(segmentSeconds) + KEYFRAME_SLACK_SECONDS;
+    }
+
+    private void writePlaylists(boolean complete) throws IOException {
+        for (Rendition rendition : renditions) {
+            HlsPlaylists.writeAtomically(output.resolve(rendition.name()).resolve(HlsPlaylists.MEDIA_PLAYLIST),
+                    HlsPlaylists.mediaPlaylist(published.get(rendition.name()), targetDuration, complete));
+        }
+    }
+}
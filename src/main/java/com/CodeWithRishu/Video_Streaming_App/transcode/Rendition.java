@@ -0,0 +1,25 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+public record Rendition(String name, int width, int height, int videoKbps, int audioKbps) {
+
+    // x264 VBV cap: the encoder's bitrate may swing this far above the target
+    private static final int MAXRATE_PERCENT = 107;
+
+    public int maxrateKbps() {
+        return videoKbps * MAXRATE_PERCENT / 100;
+    }
+
+    // BANDWIDTH is the peak bitrate, so players on tight links do not pick a rendition that stalls
+    public long bandwidth(boolean withAudio) {
+        return (maxrateKbps() + (withAudio ? audioKbps : 0)) * 1000L;
+    }
+
+    // Keeps the source aspect ratio at this rendition's height; x264 needs even dimensions.
+    public Rendition scaledFor(int sourceWidth, int sourceHeight) {
+        if (sourceWidth <= 0 || sourceHeight <= 0) {
+            return this;
+        }
+        int scaledWidth = (int) Math.round((double) sourceWidth * height / sourceHeight);
+        return new Rendition(name, scaledWidth + (scaledWidth & 1), height, videoKbps, audioKbps);
+    }
+}
@@ -0,0 +1,62 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Parses {@code video.hls.renditions}, a comma separated list of
+ * {@code name:WIDTHxHEIGHT:videoKbps:audioKbps} entries.
+ */
+@Component
+public class RenditionLadder {
+
+    private final List<Rendition> renditions;
+
+    public RenditionLadder(@Value("${video.hls.renditions:1080p:1920x1080:5000:192,720p:1280x720:2800:128,480p:854x480:1400:128,240p:426x240:400:64}") String spec) {
+        this.renditions = parse(spec);
+    }
+
+    public List<Rendition> getRenditions() {
+        return renditions;
+    }
+
+    // Never upscale; a source smaller than every rung still gets the smallest one.
+    public List<Rendition> forSource(int sourceWidth, int sourceHeight) {
+        List<Rendition> selected = new ArrayList<>();
+        for (Rendition rendition : renditions) {
+            if (sourceHeight <= 0 || rendition.height() <= sourceHeight) {
+                selected.add(rendition.scaledFor(sourceWidth, sourceHeight));
+            }
+        }
+        if (selected.isEmpty()) {
+            selected.add(renditions.get(renditions.size() - 1).scaledFor(sourceWidth, sourceHeight));
+        }
+        return selected;
+    }
+
+    static List<Rendition> parse(String spec) {
+        List<Rendition> parsed = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split(":");
+            String[] size = parts.length == 4 ? parts[1].split("x") : new String[0];
+            if (size.length != 2 || !parts[0].matches("[A-Za-z0-9_-]+")) {
+                throw new IllegalArgumentException("Invalid rendition '" + trimmed + "', expected name:WIDTHxHEIGHT:videoKbps:audioKbps");
+            }
+            parsed.add(new Rendition(parts[0], Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("video.hls.renditions must define at least one rendition");
+        }
+        parsed.sort(Comparator.comparingInt(Rendition::height).reversed());
+        return List.copyOf(parsed);
+    }
+}
@@ -0,0 +1,10 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import java.time.Duration;
+
+/**
+ * Live state of a running session. {@code fps} and {@code speed} are summed over the invocations
+ * running side by side, so they describe the job's total throughput.
+ */
+public record TranscodeProgress(double percent, double fps, double speed, Duration elapsed) {
+}
@@ -0,0 +1,51 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs the encoder for transcode jobs. A job opens one session before it first touches the
+ * source, and every process the job starts (probing, poster extraction, a split and then parallel
+ * chunk encodes) runs through it; progress and cancellation apply to the session as a whole.
+ */
+public interface Transcoder {
+
+    Session open(String key);
+
+    Optional<TranscodeProgress> progress(String key);
+
+    /**
+     * Kills the session's running processes and fails any later ones. Returns {@code false} when no
+     * session is open yet: the cancel is then held briefly and applied by the next {@link #open}, so
+     * a job claimed a moment ago still stops at its first process.
+     */
+    boolean cancel(String key);
+
+    interface Session extends AutoCloseable {
+
+        /**
+         * Sets the source duration that the session's tracked invocations encode between them, used
+         * to turn progress into a percentage. Known only once the source has been probed.
+         */
+        void setMediaSeconds(double mediaSeconds);
+
+        /**
+         * Runs one encoder invocation with {@code args} (without the executable) and waits for it to
+         * exit. {@code mediaSeconds} is this invocation's share of the session's progress, or 0 when
+         * it should not count towards it. Throws {@link IOException} carrying the tail of the
+         * encoder's error output on a non-zero exit or timeout.
+         */
+        void run(List<String> args, double mediaSeconds) throws IOException, InterruptedException;
+
+        /**
+         * Runs {@code command} (executable first) under the session's cancellation, bounded by
+         * {@code timeout}, and returns its standard output lines. Fails like {@link #run}.
+         */
+        List<String> exec(List<String> command, Duration timeout) throws IOException, InterruptedException;
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.CodeWithRishu.Video_Streaming_App.utils;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+public interface ByteRanges {
+
+    /**
+     * RFC 9110 If-Range: the Range header only applies when the validator still matches the
+     * current representation; otherwise the full body must be sent with a 200.
+     */
+    static boolean ifRangeMatches(HttpHeaders headers, String etag, long lastModified) {
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Weak validators never match for If-Range
+            return etag != null && !ifRange.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return lastModified > 0 && since == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the requested ranges against the resource. Open-ended ranges ({@code bytes=N-}) are
+     * trimmed to {@code openEndedChunk} and explicit ranges to {@code maxRange}, so one request can
+     * never pin a connection for an entire multi-GB file.
+     *
+     * @throws IllegalArgumentException if any range is unsatisfiable
+     */
+    static List<ResourceRegion> toRegions(Resource resource, List<HttpRange> ranges, long contentLength,
+                                          long openEndedChunk, long maxRange) {
+        List<ResourceRegion> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(contentLength);
+            long end = range.getRangeEnd(contentLength);
+            if (start >= contentLength || end < start) {
+                throw new IllegalArgumentException("Unsatisfiable range " + range + " for length " + contentLength);
+            }
+            long limit = isOpenEnded(range) ? openEndedChunk : maxRange;
+            long length = Math.min(limit, end - start + 1);
+            total += length;
+            regions.add(new ResourceRegion(resource, start, length));
+        }
+        if (regions.size() > 1 && total > contentLength) {
+            throw new IllegalArgumentException("The sum of all ranges exceeds the content length");
+        }
+        return regions;
+    }
+
+    /**
+     * True for {@code bytes=N-}. HttpRange does not expose its last position, so this probes it:
+     * only an open-ended range ends at the last byte of any length while starting at a fixed offset
+     * (a suffix range {@code bytes=-N} ends there too, but its start moves with the length).
+     */
+    static boolean isOpenEnded(HttpRange range) {
+        long length = Long.MAX_VALUE;
+        return range.getRangeEnd(length) == length - 1
+                && range.getRangeStart(length) == range.getRangeStart(length - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.CodeWithRishu.Video_Streaming_App.utils;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+
+public interface CacheValidators {
+
+    // Files under a published HLS version never change, so version + path is a strong validator
+    static String hlsEtag(Video video, String relativePath) {
+        if (video.getHlsVersion() == null) {
+            return null;
+        }
+        return "\"" + video.getHlsVersion() + "-" + Integer.toHexString(relativePath.hashCode()) + "\"";
+    }
+
+    static long hlsLastModified(Video video) {
+        return video.getHlsPublishedAt() == null ? -1 : video.getHlsPublishedAt().toEpochMilli();
+    }
+
+    static String thumbnailEtag(Video video) {
+        return thumbnailEtag(video, 0);
+    }
+
+    // Stored thumbnails carry a random prefix and are never overwritten in place, and every
+    // variant (width > 0) is derived from that file or from the video's poster frame
+    static String thumbnailEtag(Video video, int width) {
+        String source = video.getThumbnailUrl() != null ? video.getThumbnailUrl() : "poster:" + video.getVideoId();
+        return "\"t-" + Integer.toHexString(source.hashCode()) + (width > 0 ? "-" + width : "") + "\"";
+    }
+
+    static String sourceEtag(Video video) {
+        if (video.getContentHash() == null) {
+            return null;
+        }
+        return "\"" + video.getContentHash().substring(0, Math.min(32, video.getContentHash().length())) + "\"";
+    }
+
+    static long createdLastModified(Video video) {
+        return video.getCreatedAt() == null ? -1 : video.getCreatedAt().toEpochMilli();
+    }
+}
@@ -1,7 +1,17 @@
 package com.CodeWithRishu.Video_Streaming_App.utils;
 
+import com.CodeWithRishu.Video_Streaming_App.dto.TrendingVideoDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadSessionDto;
 import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoStatusDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
 import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.transcode.TranscodeProgress;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 public interface Serialization {
     static VideoMetaDataDto mapVideoToDto(Video video) {
@@ -10,6 +20,53 @@ public interface Serialization {
         dto.setTitle(video.getTitle());
         dto.setDescription(video.getDescription());
         dto.setContentType(video.getContentType());
+        dto.setCreatedAt(video.getCreatedAt());
+        return dto;
+    }
+
+    static TrendingVideoDto mapVideoToTrendingDto(Video video, double score) {
+        return TrendingVideoDto.builder()
+                .id(video.getVideoId())
+                .title(video.getTitle())
+                .contentType(video.getContentType())
+                .createdAt(video.getCreatedAt())
+                .viewCount(video.getViewCount())
+                .bytesWatched(video.getBytesWatched())
+                .score(score)
+                .build();
+    }
+
+    static VideoStatusDto mapJobToStatusDto(TranscodeJob job, TranscodeProgress progress) {
+        VideoStatusDto dto = new VideoStatusDto();
+        dto.setVideoId(job.getVideoId());
+        dto.setStatus(job.getStatus().name());
+        dto.setAttempts(job.getAttempts());
+        dto.setLastError(job.getLastError());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        if (progress != null) {
+            dto.setProgressPercent(Math.round(progress.percent() * 10) / 10.0);
+            dto.setFps(Math.round(progress.fps() * 10) / 10.0);
+            dto.setSpeed(Math.round(progress.speed() * 100) / 100.0);
+        }
+        return dto;
+    }
+
+    static UploadSessionDto mapUploadSessionToDto(UploadSession session) {
+        BitSet received = session.receivedPartSet();
+        List<Integer> missing = new ArrayList<>();
+        for (int part = received.nextClearBit(0); part < session.getPartCount(); part = received.nextClearBit(part + 1)) {
+            missing.add(part);
+        }
+
+        UploadSessionDto dto = new UploadSessionDto();
+        dto.setUploadId(session.getUploadId());
+        dto.setStatus(session.getStatus().name());
+        dto.setTotalSize(session.getTotalSize());
+        dto.setPartSize(session.getPartSize());
+        dto.setPartCount(session.getPartCount());
+        dto.setReceivedCount(received.cardinality());
+        dto.setMissingParts(missing);
+        dto.setVideoId(session.getVideoId());
         return dto;
     }
 }
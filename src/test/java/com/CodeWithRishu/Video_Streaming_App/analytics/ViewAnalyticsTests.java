@@ -0,0 +1,136 @@
+package com.CodeWithRishu.Video_Streaming_App.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ViewAnalyticsTests {
+
+	private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+	private JdbcTemplate jdbcTemplate;
+	private ViewAnalytics analytics;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		analytics = new ViewAnalytics(jdbcTemplate, 2, Duration.ofHours(1), 10);
+	}
+
+	@Test
+	void concurrentRecordsAreFlushedAsOneBatchedIncrementPerVideo() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			pool.submit(() -> {
+				for (int i = 0; i < 1000; i++) {
+					analytics.record("a", 10, i % 10 == 0);
+					analytics.record("b", 1, false);
+				}
+			});
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		analytics.flush(0);
+
+		List<Object[]> rows = flushedRows();
+		assertThat(rows).extracting(row -> row[2]).containsExactlyInAnyOrder("a", "b");
+		assertThat(rows).filteredOn(row -> row[2].equals("a")).singleElement()
+				.satisfies(row -> assertThat(row).containsExactly(400L, 40_000L, "a"));
+		assertThat(rows).filteredOn(row -> row[2].equals("b")).singleElement()
+				.satisfies(row -> assertThat(row).containsExactly(0L, 4_000L, "b"));
+
+		// Nothing new: the next flush writes nothing
+		reset(jdbcTemplate);
+		analytics.flush(1);
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	void recordsRacingWithIdleEntryRetirementAreNotLost() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			pool.submit(() -> {
+				for (int i = 0; i < 5000; i++) {
+					analytics.record("v" + (i % 3), 1, true);
+					if (i % 100 == 0) {
+						Thread.yield();
+					}
+				}
+			});
+		}
+		pool.shutdown();
+		long now = 0;
+		while (!pool.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+			analytics.flush(now++);
+		}
+		// The first drains what is still live, the second what the first retired
+		analytics.flush(now++);
+		analytics.flush(now);
+
+		assertThat(flushedRows().stream().mapToLong(row -> (Long) row[0]).sum()).isEqualTo(20_000L);
+	}
+
+	@Test
+	void failedFlushIsRetriedOnTheNextOne() {
+		analytics.record("a", 100, true);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+		analytics.flush(0);
+
+		reset(jdbcTemplate);
+		analytics.record("a", 50, false);
+		analytics.flush(1);
+
+		assertThat(flushedRows()).singleElement().satisfies(row -> assertThat(row).containsExactly(1L, 150L, "a"));
+	}
+
+	@Test
+	void trendingFavoursRecentViews() {
+		for (int i = 0; i < 8; i++) {
+			analytics.record("old", 0, true);
+		}
+		analytics.flush(0);
+		for (int i = 0; i < 3; i++) {
+			analytics.record("new", 0, true);
+		}
+		// Two half-lives later the 8 earlier views are worth 2
+		analytics.flush(2 * HOUR);
+
+		assertThat(analytics.trending(10)).extracting(ViewAnalytics.Trending::videoId).containsExactly("new", "old");
+		assertThat(analytics.trending(10).get(1).score()).isCloseTo(2.0, offset(1e-9));
+		assertThat(analytics.trending(1)).hasSize(1);
+	}
+
+	@Test
+	void firstSegmentsStartPlayback() {
+		assertThat(ViewAnalytics.isFirstSegment("720p/segment_000.ts")).isTrue();
+		assertThat(ViewAnalytics.isFirstSegment("segment_000.ts")).isTrue();
+		assertThat(ViewAnalytics.isFirstSegment("720p/segment_010.ts")).isFalse();
+		assertThat(ViewAnalytics.isFirstSegment("720p/index.m3u8")).isFalse();
+		assertThat(ViewAnalytics.isFirstSegment("720p/intro.ts")).isFalse();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Object[]> flushedRows() {
+		ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), captor.capture());
+		List<Object[]> rows = new ArrayList<>();
+		captor.getAllValues().forEach(rows::addAll);
+		return rows;
+	}
+}
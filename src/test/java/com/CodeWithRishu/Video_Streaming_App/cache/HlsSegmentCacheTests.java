@@ -0,0 +1,94 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.CacheStatsDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HlsSegmentCacheTests {
+
+	@TempDir
+	Path hlsDir;
+
+	@Test
+	void servesHitsFromMemoryAndEvictsLeastRecentlyUsed() throws Exception {
+		HlsSegmentCache cache = new HlsSegmentCache(DataSize.ofBytes(2048), DataSize.ofBytes(1024));
+		Path first = segment("segment_000.ts", 1000);
+		Path second = segment("segment_001.ts", 1000);
+		Path third = segment("segment_002.ts", 1000);
+
+		cache.load("v1/segment_000.ts", first);
+		cache.load("v1/segment_001.ts", second);
+		Resource hit = cache.get("v1/segment_000.ts");
+		Files.delete(first);
+		cache.load("v1/segment_002.ts", third);
+
+		assertThat(hit.getInputStream().readAllBytes()).hasSize(1000);
+		assertThat(cache.contains("v1/segment_000.ts")).isTrue();
+		assertThat(cache.contains("v1/segment_001.ts")).isFalse();
+		CacheStatsDto stats = cache.stats();
+		assertThat(stats.getHits()).isEqualTo(1);
+		assertThat(stats.getEvictions()).isEqualTo(1);
+		assertThat(stats.getSizeBytes()).isEqualTo(2000);
+	}
+
+	@Test
+	void aLoadOverlappingAnInvalidationIsNotCached() throws Exception {
+		HlsSegmentCache cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8));
+		Path file = segment("segment_000.ts", 1000);
+
+		// The generation is taken before the read; the invalidation lands while the file is read
+		long before = cache.generation("v1/segment_000.ts");
+		cache.invalidate("v1");
+		Resource stale = cache.load("v1/segment_000.ts", file, before);
+
+		assertThat(stale.contentLength()).isEqualTo(1000);
+		assertThat(cache.contains("v1/segment_000.ts")).isFalse();
+
+		before = cache.generation("v1/index.m3u8");
+		cache.evict("v1/index.m3u8");
+		cache.load("v1/index.m3u8", file, before);
+		assertThat(cache.contains("v1/index.m3u8")).isFalse();
+
+		cache.load("v1/segment_000.ts", file);
+		assertThat(cache.contains("v1/segment_000.ts")).isTrue();
+	}
+
+	@Test
+	void skipsEntriesLargerThanTheEntryLimit() throws Exception {
+		HlsSegmentCache cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofBytes(512));
+
+		assertThat(cache.load("v1/segment_000.ts", segment("segment_000.ts", 1000))).isNull();
+		assertThat(cache.stats().getEntries()).isZero();
+	}
+
+	@Test
+	void evictsEntriesThatWereNotRequestedSinceTheCutoff() throws Exception {
+		HlsSegmentCache cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8));
+		cache.load("v1/segment_000.ts", segment("segment_000.ts", 1000));
+		cache.load("v1/segment_001.ts", segment("segment_001.ts", 1000));
+		long cutoff = System.nanoTime();
+		while (System.nanoTime() == cutoff) {
+			Thread.onSpinWait();
+		}
+		cache.get("v1/segment_000.ts");
+
+		assertThat(cache.evictAccessedBefore(cutoff + 1)).isEqualTo(1);
+		assertThat(cache.contains("v1/segment_000.ts")).isTrue();
+		assertThat(cache.contains("v1/segment_001.ts")).isFalse();
+		assertThat(cache.stats().getSizeBytes()).isEqualTo(1000);
+		assertThat(cache.evictIdle(Duration.ofMinutes(5))).isZero();
+	}
+
+	private Path segment(String name, int size) throws Exception {
+		return Files.write(hlsDir.resolve(name), new byte[size]);
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.service.HlsSegmentStore;
+import com.CodeWithRishu.Video_Streaming_App.transcode.HlsPublishedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class SegmentPrefetcherTests {
+
+	@TempDir
+	Path hlsDir;
+
+	private HlsSegmentCache cache;
+	private ViewAnalytics viewAnalytics;
+	private VideoRepository videoRepository;
+	private SegmentPrefetcher prefetcher;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8));
+		viewAnalytics = new ViewAnalytics(mock(JdbcTemplate.class), 500, Duration.ofHours(1), 10);
+		videoRepository = mock(VideoRepository.class);
+		HlsSegmentStore store = new HlsSegmentStore(videoRepository, mock(TranscodeJobRepository.class), cache, hlsDir.toString(),
+				Duration.ZERO, Duration.ofHours(1));
+		prefetcher = new SegmentPrefetcher(cache, viewAnalytics, videoRepository, store,
+				2, 2, 10, Duration.ofMinutes(5), 1);
+		output("k1", "360p", "720p");
+	}
+
+	@AfterEach
+	void tearDown() {
+		prefetcher.shutdown();
+	}
+
+	@Test
+	void publishingWarmsPlaylistsAndLeadingSegments() throws Exception {
+		prefetcher.onPublished(new HlsPublishedEvent("k1"));
+
+		awaitCached("k1/360p/segment_001.ts", "k1/720p/segment_001.ts");
+		assertThat(cache.contains("k1/master.m3u8")).isTrue();
+		assertThat(cache.contains("k1/720p/index.m3u8")).isTrue();
+		assertThat(cache.contains("k1/720p/segment_000.ts")).isTrue();
+		assertThat(cache.contains("k1/720p/segment_002.ts")).isFalse();
+	}
+
+	@Test
+	void readsAheadWithinTheRenditionAndStopsAtItsEnd() throws Exception {
+		prefetcher.readAhead("k1", "720p/segment_002.ts");
+
+		awaitCached("k1/720p/segment_003.ts");
+		assertThat(cache.contains("k1/720p/segment_002.ts")).isFalse();
+		assertThat(cache.contains("k1/720p/segment_004.ts")).isFalse();
+		assertThat(cache.contains("k1/360p/segment_003.ts")).isFalse();
+		assertThat(prefetcher.getLoaded()).isEqualTo(1);
+	}
+
+	@Test
+	void warmsVideosAsTheyStartTrending() throws Exception {
+		viewAnalytics.record("v1", 0, true);
+		viewAnalytics.flush();
+		when(videoRepository.findAllById(anyIterable()))
+				.thenReturn(List.of(Video.builder().videoId("v1").hlsKey("k1").hlsVersion("v").build()));
+
+		prefetcher.maintain();
+		awaitCached("k1/360p/segment_000.ts");
+
+		// Still trending, so it is not warmed a second time
+		prefetcher.maintain();
+		verify(videoRepository, times(1)).findAllById(anyIterable());
+	}
+
+	private void awaitCached(String... keys) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!List.of(keys).stream().allMatch(cache::contains) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(keys).allMatch(cache::contains);
+	}
+
+	private void output(String hlsKey, String... renditions) throws Exception {
+		Path dir = Files.createDirectories(hlsDir.resolve(hlsKey));
+		StringBuilder master = new StringBuilder("#EXTM3U\n");
+		for (String rendition : renditions) {
+			Path renditionDir = Files.createDirectories(dir.resolve(rendition));
+			StringBuilder media = new StringBuilder("#EXTM3U\n#EXT-X-TARGETDURATION:6\n");
+			for (int i = 0; i < 4; i++) {
+				String name = String.format(Locale.ROOT, "segment_%03d.ts", i);
+				Files.write(renditionDir.resolve(name), new byte[1000]);
+				media.append("#EXTINF:6.000000,\n").append(name).append('\n');
+			}
+			Files.writeString(renditionDir.resolve("index.m3u8"), media.append("#EXT-X-ENDLIST\n"));
+			master.append("#EXT-X-STREAM-INF:BANDWIDTH=800000\n").append(rendition).append("/index.m3u8\n");
+		}
+		Files.writeString(dir.resolve("master.m3u8"), master);
+	}
+}
@@ -0,0 +1,189 @@
+package com.CodeWithRishu.Video_Streaming_App.cache;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VideoMetadataCacheTests {
+
+	private final InMemoryMetadataStore store = new InMemoryMetadataStore();
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	@Test
+	void secondNodeIsServedFromSharedTierAndThenFromItsOwnL1() {
+		VideoMetadataCache nodeA = newCache();
+		VideoMetadataCache nodeB = newCache();
+		AtomicInteger loads = new AtomicInteger();
+
+		nodeA.get("v1", () -> load(loads, "v1"));
+		Optional<Video> fromL2 = nodeB.get("v1", () -> load(loads, "v1"));
+		nodeB.get("v1", () -> load(loads, "v1"));
+
+		assertThat(fromL2).map(Video::getTitle).contains("title-v1");
+		assertThat(loads).hasValue(1);
+		assertThat(nodeB.stats().getL2Hits()).isEqualTo(1);
+		assertThat(nodeB.stats().getL1Hits()).isEqualTo(1);
+	}
+
+	@Test
+	void evictionOnOneNodeDropsOtherNodesL1() {
+		VideoMetadataCache nodeA = newCache();
+		VideoMetadataCache nodeB = newCache();
+		AtomicInteger loads = new AtomicInteger();
+		nodeB.get("v1", () -> load(loads, "v1"));
+
+		nodeA.evict("v1");
+		nodeB.get("v1", () -> load(loads, "v1"));
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void concurrentMissesShareOneDatabaseLoad() throws Exception {
+		VideoMetadataCache cache = newCache();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Optional<Video>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> cache.get("v1", () -> {
+					await(release);
+					return load(loads, "v1");
+				})));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<Optional<Video>> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void unknownIdsAreCachedUntilEvicted() {
+		VideoMetadataCache nodeA = newCache();
+		VideoMetadataCache nodeB = newCache();
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<Optional<Video>> missing = () -> {
+			loads.incrementAndGet();
+			return Optional.empty();
+		};
+
+		assertThat(nodeA.get("v1", missing)).isEmpty();
+		assertThat(nodeA.get("v1", missing)).isEmpty();
+		assertThat(nodeB.get("v1", missing)).isEmpty();
+		assertThat(loads).hasValue(1);
+
+		nodeA.evict("v1");
+		assertThat(nodeB.get("v1", () -> load(loads, "v1"))).isPresent();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void loadOverlappingAnEvictionIsNotWrittenBack() {
+		VideoMetadataCache nodeA = newCache();
+		VideoMetadataCache nodeB = newCache();
+		AtomicInteger loads = new AtomicInteger();
+
+		// nodeA reads the old row, then nodeB's update and eviction land before nodeA caches it
+		Optional<Video> stale = nodeA.get("v1", () -> {
+			Optional<Video> old = load(loads, "v1");
+			nodeB.evict("v1");
+			return old;
+		});
+		assertThat(stale).isPresent();
+
+		Optional<Video> fresh = nodeA.get("v1", () -> {
+			loads.incrementAndGet();
+			return Optional.of(Video.builder().videoId("v1").title("updated").build());
+		});
+		assertThat(fresh).map(Video::getTitle).contains("updated");
+		assertThat(nodeB.get("v1", () -> load(loads, "v1"))).map(Video::getTitle).contains("updated");
+		assertThat(loads).hasValue(2);
+	}
+
+	private VideoMetadataCache newCache() {
+		return new VideoMetadataCache(store, objectMapper, Duration.ofMinutes(1), 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+	}
+
+	private static Optional<Video> load(AtomicInteger loads, String videoId) {
+		loads.incrementAndGet();
+		return Optional.of(Video.builder().videoId(videoId).title("title-" + videoId).build());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	static class InMemoryMetadataStore implements MetadataStore {
+
+		private final Map<String, String> values = new ConcurrentHashMap<>();
+		private final Map<String, Long> generations = new ConcurrentHashMap<>();
+		private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Optional<String> get(String key) {
+			return Optional.ofNullable(values.get(key));
+		}
+
+		@Override
+		public long generation(String key) {
+			return generations.getOrDefault(key, 0L);
+		}
+
+		@Override
+		public synchronized boolean put(String key, String value, Duration ttl, long generation) {
+			if (generation(key) != generation) {
+				return false;
+			}
+			values.put(key, value);
+			return true;
+		}
+
+		@Override
+		public synchronized void delete(String key) {
+			generations.merge(key, 1L, Long::sum);
+			values.remove(key);
+		}
+
+		@Override
+		public void publishInvalidation(String videoId) {
+			listeners.forEach(listener -> listener.accept(videoId));
+		}
+
+		@Override
+		public void onInvalidation(Consumer<String> listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void publishSearchUpdate(String videoId) {
+		}
+
+		@Override
+		public void onSearchUpdate(Consumer<String> listener) {
+		}
+	}
+
+}
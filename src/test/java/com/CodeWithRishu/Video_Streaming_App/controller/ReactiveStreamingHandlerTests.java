@@ -0,0 +1,119 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.config.ReactiveStreamingConfig;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactiveStreamingHandlerTests {
+
+	@TempDir
+	Path dir;
+
+	private final VideoService videoService = mock(VideoService.class);
+	private WebTestClient client;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[1000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		Path file = Files.write(dir.resolve("movie.mp4"), content);
+		Files.writeString(dir.resolve("segment_000.ts"), "segment");
+		Files.writeString(dir.resolve("index.m3u8"), "#EXTM3U\n#EXTINF:6.000000,\nsegment_000.ts\n#EXT-X-ENDLIST\n");
+
+		Video video = Video.builder().videoId("v1").contentHash("abc123").hlsVersion("v9")
+				.hlsPublishedAt(Instant.ofEpochSecond(1_700_000_000)).build();
+		when(videoService.find("v1")).thenReturn(Optional.of(video));
+		when(videoService.getVideoResource("v1")).thenReturn(new FileSystemResource(file));
+		when(videoService.getHlsResource("v1", "720p", "segment_000.ts")).thenReturn(new FileSystemResource(dir.resolve("segment_000.ts")));
+		when(videoService.getHlsResource("v1", "720p", "index.m3u8")).thenReturn(new FileSystemResource(dir.resolve("index.m3u8")));
+		when(videoService.getVideoResource("missing")).thenThrow(new FileNotFoundException("missing"));
+
+		ReactiveStreamingHandler handler = new ReactiveStreamingHandler(videoService, new VideoMetrics(new SimpleMeterRegistry(), 500),
+				new ViewAnalytics(mock(JdbcTemplate.class), 500, Duration.ofHours(6), 100), DataSize.ofBytes(100),
+				DataSize.ofBytes(500), Duration.ofDays(365), Duration.ofSeconds(60), DataSize.ofKilobytes(4));
+		client = WebTestClient.bindToRouterFunction(ReactiveStreamingConfig.routes(handler)).build();
+	}
+
+	@Test
+	void openEndedRangesAreChunkedWithContentRange() {
+		byte[] body = client.get().uri("/stream/v1").header(HttpHeaders.RANGE, "bytes=900-")
+				.exchange()
+				.expectStatus().isEqualTo(206)
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 900-999/1000")
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc123\"")
+				.expectBody().returnResult().getResponseBody();
+
+		assertThat(body).hasSize(100).startsWith(content[900], content[901]);
+
+		client.get().uri("/stream/v1").header(HttpHeaders.RANGE, "bytes=0-")
+				.exchange()
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 0-99/1000");
+	}
+
+	@Test
+	void staleIfRangeGetsTheFullBodyAndUnknownVideosAreNotFound() {
+		byte[] body = client.get().uri("/stream/v1")
+				.header(HttpHeaders.RANGE, "bytes=0-9")
+				.header(HttpHeaders.IF_RANGE, "\"other\"")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().returnResult().getResponseBody();
+		assertThat(body).isEqualTo(content);
+
+		client.get().uri("/stream/missing").exchange().expectStatus().isNotFound();
+		client.get().uri("/stream/v1").header(HttpHeaders.RANGE, "bytes=5000-").exchange()
+				.expectStatus().isEqualTo(416);
+	}
+
+	@Test
+	void playlistsVersionSegmentUrisAndOnlyVersionedSegmentsAreImmutable() {
+		String playlist = client.get().uri("/v1/720p/index.m3u8")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic())
+				.expectBody(String.class).returnResult().getResponseBody();
+		assertThat(playlist).contains("#EXTINF:6.000000,\nsegment_000.ts?v=v9\n");
+
+		String etag = client.get().uri("/v1/720p/segment_000.ts?v=v9")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+				.expectBody(String.class).isEqualTo("segment")
+				.returnResult().getResponseHeaders().getETag();
+
+		client.get().uri("/v1/720p/segment_000.ts").header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic());
+		// A playlist from before a re-transcode names a version whose segments were rewritten
+		client.get().uri("/v1/720p/segment_000.ts?v=v8")
+				.exchange()
+				.expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic());
+	}
+}
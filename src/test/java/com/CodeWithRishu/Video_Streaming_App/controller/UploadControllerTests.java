@@ -0,0 +1,57 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.exception.InvalidUploadException;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadAbortedException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadNotFoundException;
+import com.CodeWithRishu.Video_Streaming_App.service.ChunkedUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UploadControllerTests {
+
+	private final ChunkedUploadService uploads = mock(ChunkedUploadService.class);
+	private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new UploadController(uploads)).build();
+
+	@Test
+	void mapsPartFailuresToClientErrors() throws Exception {
+		when(uploads.writePart(eq("gone"), eq(0), eq(0L), any(), anyLong()))
+				.thenThrow(new UploadNotFoundException("Upload not found with id: gone"));
+		when(uploads.writePart(eq("u1"), eq(5), eq(0L), any(), anyLong()))
+				.thenThrow(new InvalidUploadException("Part 5 is out of range 0..2"));
+		when(uploads.writePart(eq("u1"), eq(0), eq(0L), any(), anyLong()))
+				.thenThrow(new UploadAbortedException("Client stopped sending", new IOException("reset")));
+
+		mvc.perform(put("/api/v1/uploads/gone/parts/0").param("offset", "0").content(new byte[4]))
+				.andExpect(status().isNotFound());
+		mvc.perform(put("/api/v1/uploads/u1/parts/5").param("offset", "0").content(new byte[4]))
+				.andExpect(status().isBadRequest());
+		mvc.perform(put("/api/v1/uploads/u1/parts/0").param("offset", "0").content(new byte[4]))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void mapsCompletionFailures() throws Exception {
+		when(uploads.complete("incomplete")).thenThrow(new InvalidUploadException("Upload incomplete is missing 1 of 3 parts"));
+		when(uploads.complete("busy")).thenThrow(new TranscodeQueueFullException("Transcode queue is full", 30));
+
+		mvc.perform(post("/api/v1/uploads/incomplete/complete")).andExpect(status().isConflict());
+		mvc.perform(post("/api/v1/uploads/busy/complete"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+	}
+}
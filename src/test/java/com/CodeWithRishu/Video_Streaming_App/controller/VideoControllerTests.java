@@ -0,0 +1,182 @@
+package com.CodeWithRishu.Video_Streaming_App.controller;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoPageDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class VideoControllerTests {
+
+	@TempDir
+	Path dir;
+
+	private final VideoService videoService = mock(VideoService.class);
+	private MockMvc mvc;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[1000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		Path file = Files.write(dir.resolve("movie.mp4"), content);
+
+		when(videoService.find("v1")).thenReturn(Optional.of(Video.builder().videoId("v1").contentHash("abc123").build()));
+		when(videoService.getVideoResource("v1")).thenReturn(new FileSystemResource(file));
+		when(videoService.getVideoResource("missing")).thenThrow(new FileNotFoundException("missing"));
+
+		Files.writeString(dir.resolve("segment_000.ts"), "segment");
+		Files.writeString(dir.resolve("index.m3u8"), "#EXTM3U\n#EXTINF:6.000000,\nsegment_000.ts\n#EXT-X-ENDLIST\n");
+		when(videoService.find("h1")).thenReturn(Optional.of(Video.builder().videoId("h1").hlsVersion("v9")
+				.hlsPublishedAt(Instant.ofEpochSecond(1_700_000_000)).build()));
+		when(videoService.getHlsResource("h1", "720p", "segment_000.ts")).thenReturn(new FileSystemResource(dir.resolve("segment_000.ts")));
+		when(videoService.getHlsResource("h1", "720p", "index.m3u8")).thenReturn(new FileSystemResource(dir.resolve("index.m3u8")));
+
+		VideoController controller = new VideoController(videoService, new ObjectMapper(),
+				new VideoMetrics(new SimpleMeterRegistry(), 500),
+				new ViewAnalytics(mock(JdbcTemplate.class), 500, Duration.ofHours(6), 100),
+				DataSize.ofBytes(100), DataSize.ofBytes(500),
+				Duration.ofDays(365), Duration.ofSeconds(60), Duration.ofDays(1));
+		mvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void listingWithoutCursorOrLimitReturnsOnlyTheFirstPage() throws Exception {
+		when(videoService.getPage(null, 50, false)).thenReturn(new VideoPageDto(List.of(listed("a"), listed("b")), "next"));
+
+		mvc.perform(get("/api/v1/videos"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-Next-Cursor", "next"))
+				.andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/v1/videos?cursor=next>; rel=\"next\""))
+				.andExpect(content().json("[{\"id\":\"a\"},{\"id\":\"b\"}]"));
+	}
+
+	@Test
+	void listingWithALimitIsPaginated() throws Exception {
+		when(videoService.getPage(null, 2, true)).thenReturn(new VideoPageDto(List.of(listed("a"), listed("b")), "next"));
+
+		mvc.perform(get("/api/v1/videos").param("limit", "2").param("order", "asc"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-Next-Cursor", "next"))
+				.andExpect(content().json("[{\"id\":\"a\"},{\"id\":\"b\"}]"));
+	}
+
+	@Test
+	void withoutRangeTheWholeFileIsServed() throws Exception {
+		MockHttpServletResponse response = mvc.perform(get("/api/v1/videos/stream/v1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+				.andReturn().getResponse();
+
+		assertThat(response.getContentAsByteArray()).isEqualTo(content);
+		mvc.perform(get("/api/v1/videos/stream/missing")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void singleRangeIsPartialContent() throws Exception {
+		MockHttpServletResponse response = mvc.perform(get("/api/v1/videos/stream/v1").header(HttpHeaders.RANGE, "bytes=10-19"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/1000"))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "video/mp4"))
+				.andReturn().getResponse();
+
+		assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+
+		mvc.perform(get("/api/v1/videos/stream/v1").header(HttpHeaders.RANGE, "bytes=900-"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 900-999/1000"));
+		mvc.perform(get("/api/v1/videos/stream/v1").header(HttpHeaders.RANGE, "bytes=0-"))
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-99/1000"));
+	}
+
+	@Test
+	void severalRangesAreMultipart() throws Exception {
+		MockHttpServletResponse response = mvc.perform(get("/api/v1/videos/stream/v1").header(HttpHeaders.RANGE, "bytes=0-9,500-509"))
+				.andExpect(status().isPartialContent())
+				.andReturn().getResponse();
+
+		assertThat(response.getContentType()).startsWith("multipart/byteranges");
+		assertThat(response.getContentAsString())
+				.contains("Content-Range: bytes 0-9/1000")
+				.contains("Content-Range: bytes 500-509/1000");
+	}
+
+	@Test
+	void unsatisfiableRangeIs416() throws Exception {
+		mvc.perform(get("/api/v1/videos/stream/v1").header(HttpHeaders.RANGE, "bytes=5000-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+	}
+
+	@Test
+	void staleIfRangeGetsTheFullBody() throws Exception {
+		MockHttpServletResponse response = mvc.perform(get("/api/v1/videos/stream/v1")
+						.header(HttpHeaders.RANGE, "bytes=0-9")
+						.header(HttpHeaders.IF_RANGE, "\"other\""))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+				.andReturn().getResponse();
+
+		assertThat(response.getContentAsByteArray()).isEqualTo(content);
+
+		mvc.perform(get("/api/v1/videos/stream/v1")
+						.header(HttpHeaders.RANGE, "bytes=0-9")
+						.header(HttpHeaders.IF_RANGE, "\"abc123\""))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/1000"));
+	}
+
+	@Test
+	void onlySegmentUrisNamingThePublishedVersionAreImmutable() throws Exception {
+		mvc.perform(get("/api/v1/videos/h1/720p/index.m3u8"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
+				.andExpect(content().string("#EXTM3U\n#EXTINF:6.000000,\nsegment_000.ts?v=v9\n#EXT-X-ENDLIST\n"));
+
+		mvc.perform(get("/api/v1/videos/h1/720p/segment_000.ts").param("v", "v9"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+		mvc.perform(get("/api/v1/videos/h1/720p/segment_000.ts").param("v", "v8"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+		mvc.perform(get("/api/v1/videos/h1/720p/segment_000.ts"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+	}
+
+	private static VideoMetaDataDto listed(String id) {
+		return VideoMetaDataDto.builder().id(id).title(id).build();
+	}
+}
@@ -0,0 +1,188 @@
+package com.CodeWithRishu.Video_Streaming_App.impl;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus;
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeQueueFullException;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoProcessingService;
+import com.CodeWithRishu.Video_Streaming_App.transcode.Transcoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class TranscodeJobServiceImplTests {
+
+	private static final String NODE = "node-a";
+	private static final Duration BACKOFF = Duration.ofSeconds(30);
+
+	private TranscodeJobRepository repository;
+	private VideoProcessingService processing;
+	private Transcoder transcoder;
+	private TranscodeJobServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(TranscodeJobRepository.class);
+		processing = mock(VideoProcessingService.class);
+		transcoder = mock(Transcoder.class);
+		service = new TranscodeJobServiceImpl(repository, processing, transcoder, 1, 100, 3, BACKOFF, NODE, Duration.ofMinutes(2));
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void ensureCapacityRejectsAFullQueueWithARetryHint() {
+		when(repository.countByStatus(TranscodeStatus.QUEUED)).thenReturn(99L);
+		service.ensureCapacity();
+
+		when(repository.countByStatus(TranscodeStatus.QUEUED)).thenReturn(100L);
+		assertThatThrownBy(service::ensureCapacity)
+				.isInstanceOfSatisfying(TranscodeQueueFullException.class,
+						e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(30));
+	}
+
+	@Test
+	void aFailedAttemptIsRetriedWithExponentialBackoff() {
+		TranscodeJob job = due(7L, 2);
+		doThrow(new IllegalStateException("ffmpeg exited with code 1")).when(processing).transcode("v7");
+		Instant before = Instant.now();
+
+		service.dispatch();
+
+		ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+		verify(repository, timeout(5000)).complete(eq(7L), eq(NODE), eq(TranscodeStatus.QUEUED),
+				eq("ffmpeg exited with code 1"), next.capture(), any());
+		// Second attempt: twice the base backoff
+		assertThat(next.getValue()).isBetween(before.plus(BACKOFF.multipliedBy(2)), Instant.now().plus(BACKOFF.multipliedBy(2)));
+		assertThat(job.getAttempts()).isEqualTo(2);
+	}
+
+	@Test
+	void theLastFailedAttemptFailsTheJob() {
+		due(7L, 3);
+		doThrow(new IllegalStateException("boom")).when(processing).transcode("v7");
+
+		service.dispatch();
+
+		verify(repository, timeout(5000)).complete(eq(7L), eq(NODE), eq(TranscodeStatus.FAILED), eq("boom"), isNull(), any());
+	}
+
+	@Test
+	void heartbeatRenewsRunningLeasesAndTakesOverLapsedOnes() throws Exception {
+		due(7L, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(processing).transcode("v7");
+
+		service.dispatch();
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		service.heartbeat();
+
+		verify(repository).renewLeases(eq(List.of(7L)), eq(NODE), any());
+		verify(repository).requeueExpired(any(), eq(3));
+		verify(repository).failExpiredExhausted(any(), eq(3), anyString());
+
+		release.countDown();
+		// The lease lapsed meanwhile: complete matches no row and the outcome is dropped
+		verify(repository, timeout(5000)).complete(eq(7L), eq(NODE), eq(TranscodeStatus.DONE), isNull(), any(), any());
+		await(() -> service.getActiveWorkers() == 0);
+		clearInvocations(repository);
+		service.heartbeat();
+		verify(repository, never()).renewLeases(any(), any(), any());
+	}
+
+	@Test
+	void aJobClaimedByAnotherWorkerIsNotRun() {
+		TranscodeJob job = TranscodeJob.builder().id(7L).videoId("v7").status(TranscodeStatus.QUEUED).build();
+		when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(TranscodeStatus.QUEUED), any(), any()))
+				.thenReturn(List.of(job), List.of());
+
+		service.dispatch();
+
+		verify(repository, timeout(5000)).claim(eq(7L), eq(NODE), any(), any());
+		verify(processing, after(200).never()).transcode(anyString());
+	}
+
+	@Test
+	void recoveryRequeuesThisNodesJobsAndFailsExhaustedOnes() {
+		service.recoverInterruptedJobs();
+
+		verify(repository).requeueOwned(eq(NODE), any(), eq(3));
+		verify(repository).failOwnedExhausted(eq(NODE), any(), eq(3), anyString());
+		verify(repository).requeueExpired(any(), eq(3));
+		verify(repository).findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(TranscodeStatus.QUEUED), any(), any());
+	}
+
+	@Test
+	void cancellingAQueuedJobNeverTouchesTheEncoder() {
+		latest(TranscodeStatus.QUEUED, null);
+		when(repository.cancelQueued(eq(7L), any())).thenReturn(1);
+
+		assertThat(service.cancel("v7")).isTrue();
+		verifyNoInteractions(transcoder);
+	}
+
+	@Test
+	void cancellingARunningJobStopsTheEncoderOnlyOnItsOwnNode() {
+		latest(TranscodeStatus.RUNNING, NODE);
+		assertThat(service.cancel("v7")).isTrue();
+		verify(transcoder).cancel("v7");
+
+		latest(TranscodeStatus.RUNNING, "node-b");
+		assertThat(service.cancel("v7")).isFalse();
+
+		latest(TranscodeStatus.DONE, null);
+		assertThat(service.cancel("v7")).isFalse();
+		verify(transcoder, times(1)).cancel("v7");
+	}
+
+	// A QUEUED job the next dispatch picks up and this node claims, as the claim update would leave it
+	private TranscodeJob due(long id, int attempts) {
+		TranscodeJob job = TranscodeJob.builder().id(id).videoId("v" + id).status(TranscodeStatus.RUNNING)
+				.attempts(attempts).owner(NODE).build();
+		when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(TranscodeStatus.QUEUED), any(), any()))
+				.thenReturn(List.of(job), List.of());
+		when(repository.claim(eq(id), eq(NODE), any(), any())).thenReturn(1);
+		when(repository.findById(id)).thenReturn(Optional.of(job));
+		return job;
+	}
+
+	private void latest(TranscodeStatus status, String owner) {
+		TranscodeJob job = TranscodeJob.builder().id(7L).videoId("v7").status(status).owner(owner).build();
+		when(repository.findFirstByVideoIdOrderByCreatedAtDesc("v7")).thenReturn(Optional.of(job));
+		when(repository.findById(7L)).thenReturn(Optional.of(job));
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}
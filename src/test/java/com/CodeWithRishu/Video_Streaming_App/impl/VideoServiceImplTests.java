@@ -0,0 +1,102 @@
+package com.CodeWithRishu.Video_Streaming_App.impl;
+
+import com.CodeWithRishu.Video_Streaming_App.analytics.ViewAnalytics;
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.cache.SegmentPrefetcher;
+import com.CodeWithRishu.Video_Streaming_App.cache.VideoMetadataCache;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import com.CodeWithRishu.Video_Streaming_App.search.VideoSearchIndex;
+import com.CodeWithRishu.Video_Streaming_App.service.FileStorageService;
+import com.CodeWithRishu.Video_Streaming_App.service.HlsSegmentStore;
+import com.CodeWithRishu.Video_Streaming_App.service.ThumbnailService;
+import com.CodeWithRishu.Video_Streaming_App.service.TranscodeJobService;
+import com.CodeWithRishu.Video_Streaming_App.service.VideoBlobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class VideoServiceImplTests {
+
+	@TempDir
+	Path hlsDir;
+
+	private final VideoRepository videoRepository = mock(VideoRepository.class);
+	private final SegmentPrefetcher segmentPrefetcher = mock(SegmentPrefetcher.class);
+	private HlsSegmentCache cache;
+	private HlsSegmentStore store;
+	private VideoServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8));
+		store = new HlsSegmentStore(videoRepository, mock(TranscodeJobRepository.class), cache, hlsDir.toString(),
+				Duration.ZERO, Duration.ofHours(1));
+		// The metadata cache mock finds no video, so the videoId doubles as the hlsKey
+		service = new VideoServiceImpl(videoRepository, mock(FileStorageService.class), mock(TranscodeJobService.class),
+				cache, mock(VideoMetadataCache.class), mock(VideoSearchIndex.class), mock(ThumbnailService.class),
+				mock(VideoBlobService.class), new VideoMetrics(new SimpleMeterRegistry(), 500),
+				mock(ViewAnalytics.class), segmentPrefetcher, store);
+		ReflectionTestUtils.setField(service, "maxPageSize", 200);
+
+		Path rendition = Files.createDirectories(hlsDir.resolve("k1/720p"));
+		Files.writeString(hlsDir.resolve("k1/master.m3u8"), "#EXTM3U\n#EXT-X-STREAM-INF:BANDWIDTH=2800000\n720p/index.m3u8\n");
+		Files.writeString(rendition.resolve("index.m3u8"), "#EXTM3U\n#EXTINF:6.000000,\nsegment_000.ts\n#EXT-X-ENDLIST\n");
+		Files.writeString(rendition.resolve("segment_000.ts"), "segment 0");
+		store.buildIndex();
+	}
+
+	@Test
+	void removedOutputIsNotServedFromTheCache() throws Exception {
+		service.getHlsResource("k1", "720p", "segment_000.ts");
+		assertThat(service.getHlsResource("k1", "720p", "segment_000.ts").getInputStream().readAllBytes())
+				.isEqualTo("segment 0".getBytes());
+		assertThat(cache.stats().getHits()).isEqualTo(1);
+
+		FileSystemUtils.deleteRecursively(hlsDir.resolve("k1"));
+		store.reconcile();
+
+		assertThatThrownBy(() -> service.getHlsResource("k1", "720p", "segment_000.ts"))
+				.isInstanceOf(FileNotFoundException.class);
+	}
+
+	@Test
+	void cachedCopiesOfFilesTheIndexNoLongerListsAreNotServed() throws Exception {
+		service.getHlsResource("k1", "720p", "segment_000.ts");
+		// A re-transcode rewrote the playlist without this segment, behind the cache's back
+		Files.writeString(hlsDir.resolve("k1/720p/index.m3u8"), "#EXTM3U\n#EXT-X-ENDLIST\n");
+		store.refresh("k1");
+
+		assertThat(cache.contains("k1/720p/segment_000.ts")).isTrue();
+		assertThatThrownBy(() -> service.getHlsResource("k1", "720p", "segment_000.ts"))
+				.isInstanceOf(FileNotFoundException.class);
+	}
+
+	@Test
+	void onlyIndexedSegmentsTriggerReadAhead() throws Exception {
+		assertThatThrownBy(() -> service.getHlsResource("k1", "720p", "segment_999.ts"))
+				.isInstanceOf(FileNotFoundException.class);
+		assertThatThrownBy(() -> service.getHlsResource("unknown", "720p", "segment_000.ts"))
+				.isInstanceOf(FileNotFoundException.class);
+		verifyNoInteractions(segmentPrefetcher);
+
+		service.getHlsResource("k1", "720p", "segment_000.ts");
+		verify(segmentPrefetcher).readAhead("k1", "720p/segment_000.ts");
+	}
+}
@@ -0,0 +1,129 @@
+package com.CodeWithRishu.Video_Streaming_App.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens an increasing number of concurrent slow-reading streams against a running server and
+ * reports how many of them get their first byte within the deadline. The largest level at which
+ * every stream is served is the concurrent-connection ceiling.
+ *
+ * <pre>
+ * ./mvnw -q test-compile
+ * java -cp target/test-classes com.CodeWithRishu.Video_Streaming_App.loadtest.StreamLoadHarness \
+ *     http://localhost:8080/api/v1/videos/stream/{videoId} 100,200,400,800,1600 256 20
+ * </pre>
+ *
+ * Arguments: url, comma-separated concurrency levels, per-stream read rate in KB/s, seconds each
+ * stream is held open.
+ */
+public class StreamLoadHarness {
+
+	private static final Duration FIRST_BYTE_DEADLINE = Duration.ofSeconds(5);
+	private static final int READ_CHUNK = 16 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("usage: StreamLoadHarness <url> [levels=100,200,400,800] [rateKBps=256] [holdSeconds=20]");
+			System.exit(2);
+		}
+		URI uri = URI.create(args[0]);
+		List<Integer> levels = new ArrayList<>();
+		for (String level : (args.length > 1 ? args[1] : "100,200,400,800").split(",")) {
+			levels.add(Integer.parseInt(level.trim()));
+		}
+		int rateKBps = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+		Duration hold = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 20);
+
+		System.out.printf("%8s %8s %8s %10s %10s%n", "streams", "served", "failed", "p50 ttfb", "p99 ttfb");
+		int ceiling = 0;
+		for (int level : levels) {
+			Result result = runLevel(uri, level, rateKBps, hold);
+			System.out.printf("%8d %8d %8d %8d ms %8d ms%n", level, result.served, result.failed,
+					result.percentile(50), result.percentile(99));
+			if (result.served == level) {
+				ceiling = level;
+			}
+			// Let the server drain closed connections before the next level
+			Thread.sleep(2000);
+		}
+		System.out.println("concurrent-connection ceiling: " + ceiling);
+	}
+
+	private static Result runLevel(URI uri, int streams, int rateKBps, Duration hold) throws InterruptedException {
+		// One client per stream so each gets its own HTTP/1.1 connection
+		AtomicInteger served = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		ConcurrentLinkedQueue<Long> firstByteMillis = new ConcurrentLinkedQueue<>();
+		CountDownLatch done = new CountDownLatch(streams);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < streams; i++) {
+				executor.execute(() -> {
+					try (HttpClient client = HttpClient.newBuilder()
+							.version(HttpClient.Version.HTTP_1_1)
+							.connectTimeout(FIRST_BYTE_DEADLINE)
+							.build()) {
+						HttpRequest request = HttpRequest.newBuilder(uri)
+								.header("Range", "bytes=0-")
+								.timeout(FIRST_BYTE_DEADLINE)
+								.build();
+						long started = System.nanoTime();
+						HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+						try (InputStream body = response.body()) {
+							if (response.statusCode() >= 400 || body.read() < 0) {
+								failed.incrementAndGet();
+								return;
+							}
+							firstByteMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+							served.incrementAndGet();
+							readSlowly(body, rateKBps, hold);
+						}
+					} catch (IOException e) {
+						failed.incrementAndGet();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						done.countDown();
+					}
+				});
+			}
+			done.await();
+		}
+		return new Result(served.get(), failed.get(), firstByteMillis.stream().mapToLong(Long::longValue).sorted().toArray());
+	}
+
+	// Simulates a slow mobile link: the server's socket writes block once our receive buffer fills
+	private static void readSlowly(InputStream body, int rateKBps, Duration hold) throws IOException, InterruptedException {
+		byte[] buffer = new byte[READ_CHUNK];
+		long deadline = System.nanoTime() + hold.toNanos();
+		long pauseMillis = Math.max(1, READ_CHUNK * 1000L / (rateKBps * 1024L));
+		while (System.nanoTime() < deadline && body.read(buffer) >= 0) {
+			Thread.sleep(pauseMillis);
+		}
+	}
+
+	private record Result(int served, int failed, long[] sortedFirstByteMillis) {
+
+		long percentile(int p) {
+			if (sortedFirstByteMillis.length == 0) {
+				return -1;
+			}
+			int index = (int) Math.ceil(p / 100.0 * sortedFirstByteMillis.length) - 1;
+			return sortedFirstByteMillis[Math.max(0, index)];
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.CodeWithRishu.Video_Streaming_App.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VideoMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final VideoMetrics metrics = new VideoMetrics(registry, 2);
+
+	@Test
+	void countsBytesPerRenditionAndPerVideoUpToTheTagLimit() {
+		metrics.recordBytesServed("v1", "720p", 100);
+		metrics.recordBytesServed("v1", "720p", 50);
+		metrics.recordBytesServed("v2", "source", 10);
+		metrics.recordBytesServed("v3", "720p", 7);
+		metrics.recordBytesServed("v4", "720p", 0);
+
+		assertThat(registry.get(VideoMetrics.BYTES_SERVED).tag("rendition", "720p").counter().count()).isEqualTo(157);
+		assertThat(registry.get(VideoMetrics.BYTES_SERVED_BY_VIDEO).tag("video", "v1").counter().count()).isEqualTo(150);
+		assertThat(registry.find(VideoMetrics.BYTES_SERVED_BY_VIDEO).counters()).hasSize(2);
+	}
+
+	@Test
+	void timersCarryTheirOutcomeTags() {
+		metrics.recordTranscode(metrics.startTimer(), "segmented", "cancelled");
+		metrics.recordUpload(metrics.startTimer(), "stream", 4096, true);
+		metrics.recordHlsLookup(metrics.startTimer(), "segment", true);
+
+		assertThat(registry.get(VideoMetrics.TRANSCODE).tags("mode", "segmented", "outcome", "cancelled").timer().count()).isEqualTo(1);
+		assertThat(registry.get(VideoMetrics.UPLOAD).tags("source", "stream", "outcome", "success").timer().count()).isEqualTo(1);
+		assertThat(registry.get(VideoMetrics.UPLOAD_BYTES).tag("source", "stream").counter().count()).isEqualTo(4096);
+		assertThat(registry.get(VideoMetrics.HLS_LOOKUP).tags("type", "segment", "cache", "hit").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void tracksActiveStreamsAndRenditionPaths() {
+		metrics.streamStarted();
+		metrics.streamStarted();
+		metrics.streamFinished();
+
+		assertThat(registry.get(VideoMetrics.ACTIVE_STREAMS).gauge().value()).isEqualTo(1);
+		assertThat(VideoMetrics.renditionOf("720p/segment_001.ts")).isEqualTo("720p");
+		assertThat(VideoMetrics.renditionOf("master.m3u8")).isEqualTo("default");
+	}
+}
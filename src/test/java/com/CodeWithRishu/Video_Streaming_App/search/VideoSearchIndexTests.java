@@ -0,0 +1,91 @@
+package com.CodeWithRishu.Video_Streaming_App.search;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.MetadataStore;
+import com.CodeWithRishu.Video_Streaming_App.dto.VideoMetaDataDto;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VideoSearchIndexTests {
+
+	private final VideoSearchIndex index = new VideoSearchIndex(null, mock(MetadataStore.class));
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		index.index(video("a", "Cooking pasta at home", "A quick dinner"));
+		index.index(video("b", "Weekend vlog", "We tried cooking for the first time"));
+
+		assertThat(index.search("cooking", 10)).extracting(VideoMetaDataDto::getId).containsExactly("a", "b");
+	}
+
+	@Test
+	void matchesPrefixesAndRequiresEveryTerm() {
+		index.index(video("a", "Introduction to Java streams", ""));
+		index.index(video("b", "Java garbage collection", ""));
+		index.index(video("c", "Café stream highlights", ""));
+
+		assertThat(index.search("jav str", 10)).extracting(VideoMetaDataDto::getId).containsExactly("a");
+		assertThat(index.search("cafe", 10)).extracting(VideoMetaDataDto::getId).containsExactly("c");
+	}
+
+	@Test
+	void reindexingReplacesPreviousTerms() {
+		index.index(video("a", "Old title", ""));
+		index.index(video("a", "New title", ""));
+
+		assertThat(index.search("old", 10)).isEmpty();
+		assertThat(index.search("new", 10)).extracting(VideoMetaDataDto::getId).containsExactly("a");
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void searchUpdatesFromOtherNodesReindexOrDropTheVideo() {
+		VideoRepository repository = mock(VideoRepository.class);
+		MetadataStore store = mock(MetadataStore.class);
+		VideoSearchIndex shared = new VideoSearchIndex(repository, store);
+		ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+		verify(store).onSearchUpdate(listener.capture());
+		// Metadata evictions for views or status never cost the index a database read
+		verify(store, never()).onInvalidation(any());
+		shared.index(video("a", "Old title", ""));
+
+		when(repository.findMetaDataById("a")).thenReturn(Optional.of(video("a", "Renamed elsewhere", "")));
+		listener.getValue().accept("a");
+		assertThat(shared.search("renamed", 10)).extracting(VideoMetaDataDto::getId).containsExactly("a");
+		assertThat(shared.search("old", 10)).isEmpty();
+
+		when(repository.findMetaDataById("a")).thenReturn(Optional.empty());
+		listener.getValue().accept("a");
+		assertThat(shared.size()).isZero();
+	}
+
+	@Test
+	void localWritesAreAnnouncedToOtherNodes() {
+		MetadataStore store = mock(MetadataStore.class);
+		VideoSearchIndex shared = new VideoSearchIndex(null, store);
+
+		shared.indexAndPublish(video("a", "Launch day", ""));
+		assertThat(shared.search("launch", 10)).extracting(VideoMetaDataDto::getId).containsExactly("a");
+		shared.removeAndPublish("a");
+		assertThat(shared.size()).isZero();
+
+		verify(store, times(2)).publishSearchUpdate("a");
+	}
+
+	private static VideoMetaDataDto video(String id, String title, String description) {
+		return VideoMetaDataDto.builder().id(id).title(title).description(description).build();
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.dto.UploadInitRequestDto;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadSession;
+import com.CodeWithRishu.Video_Streaming_App.entity.UploadStatus;
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import com.CodeWithRishu.Video_Streaming_App.exception.InvalidUploadException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadNotFoundException;
+import com.CodeWithRishu.Video_Streaming_App.impl.ChunkedUploadServiceImpl;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import com.CodeWithRishu.Video_Streaming_App.repository.UploadSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceImplTests {
+
+	private static final int PART_SIZE = 1024;
+
+	@TempDir
+	Path uploadDir;
+
+	private final Map<String, UploadSession> sessions = new HashMap<>();
+	private final VideoService videoService = mock(VideoService.class);
+	private ChunkedUploadServiceImpl uploads;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() {
+		UploadSessionRepository repository = mock(UploadSessionRepository.class);
+		when(repository.save(any())).thenAnswer(invocation -> {
+			UploadSession session = invocation.getArgument(0);
+			sessions.put(session.getUploadId(), session);
+			return session;
+		});
+		when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+		doAnswer(invocation -> sessions.remove(invocation.<UploadSession>getArgument(0).getUploadId())).when(repository).delete(any());
+		when(repository.findByStatusAndUpdatedAtBefore(any(), any())).thenAnswer(invocation -> sessions.values().stream()
+				.filter(s -> s.getStatus() == invocation.getArgument(0) && s.getUpdatedAt().isBefore(invocation.getArgument(1)))
+				.toList());
+		when(videoService.saveUploaded(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), DataSize.ofMegabytes(1),
+				new VideoMetrics(new SimpleMeterRegistry(), 500));
+		uploads = new ChunkedUploadServiceImpl(repository, storage, videoService, DataSize.ofBytes(PART_SIZE),
+				DataSize.ofBytes(PART_SIZE), DataSize.ofKilobytes(64), Duration.ofHours(24));
+
+		content = new byte[2 * PART_SIZE + 500];
+		new Random(3).nextBytes(content);
+	}
+
+	@Test
+	void partsInAnyOrderCompleteIntoTheHashedFile() throws Exception {
+		UploadSession session = open();
+		for (int part : new int[]{2, 0, 1}) {
+			put(session, part);
+		}
+
+		Video video = uploads.complete(session.getUploadId());
+
+		ArgumentCaptor<FileStorageService.StoredFile> stored = ArgumentCaptor.forClass(FileStorageService.StoredFile.class);
+		verify(videoService).saveUploaded(eq(video), stored.capture(), eq("video/mp4"));
+		assertThat(stored.getValue().sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		assertThat(Files.readAllBytes(uploadDir.resolve(stored.getValue().fileName()))).isEqualTo(content);
+		assertThat(uploads.get(session.getUploadId()).getStatus()).isEqualTo(UploadStatus.COMPLETED);
+	}
+
+	@Test
+	void rejectsPartsThatDoNotFitTheSession() {
+		String uploadId = open().getUploadId();
+
+		assertThatThrownBy(() -> uploads.writePart(uploadId, 3, 3L * PART_SIZE, body(0, PART_SIZE), PART_SIZE))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("out of range");
+		assertThatThrownBy(() -> uploads.writePart(uploadId, 1, 100, body(0, PART_SIZE), PART_SIZE))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("offset");
+		assertThatThrownBy(() -> uploads.writePart(uploadId, 2, 2L * PART_SIZE, body(0, PART_SIZE), PART_SIZE))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("must be 500 bytes");
+		assertThatThrownBy(() -> uploads.writePart("unknown", 0, 0, body(0, PART_SIZE), PART_SIZE))
+				.isInstanceOf(UploadNotFoundException.class);
+		assertThat(uploads.get(uploadId).receivedPartSet().isEmpty()).isTrue();
+	}
+
+	@Test
+	void aShortBodyIsNotCountedAsReceived() {
+		String uploadId = open().getUploadId();
+
+		// No Content-Length, so the shortfall shows only once the body ends
+		assertThatThrownBy(() -> uploads.writePart(uploadId, 0, 0, body(0, 100), -1))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("ended after 100");
+		assertThat(uploads.get(uploadId).receivedPartSet().isEmpty()).isTrue();
+	}
+
+	@Test
+	void completingWithMissingPartsLeavesTheUploadOpen() {
+		UploadSession session = open();
+		put(session, 0);
+
+		assertThatThrownBy(() -> uploads.complete(session.getUploadId()))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("missing 2 of 3 parts");
+		assertThat(uploads.get(session.getUploadId()).getStatus()).isEqualTo(UploadStatus.OPEN);
+		verifyNoInteractions(videoService);
+	}
+
+	@Test
+	void repeatingCompleteReturnsTheSameVideoAndLaterPartsAreRejected() {
+		UploadSession session = open();
+		for (int part = 0; part < 3; part++) {
+			put(session, part);
+		}
+		Video first = uploads.complete(session.getUploadId());
+		when(videoService.get(first.getVideoId())).thenReturn(first);
+
+		assertThat(uploads.complete(session.getUploadId())).isSameAs(first);
+		verify(videoService, times(1)).saveUploaded(any(), any(), any());
+		assertThatThrownBy(() -> put(session, 0))
+				.isInstanceOf(InvalidUploadException.class).hasMessageContaining("already COMPLETED");
+	}
+
+	@Test
+	void abandonedUploadsExpireWithTheirFile() throws Exception {
+		UploadSession stale = open();
+		UploadSession active = open();
+		stale.setUpdatedAt(Instant.now().minus(Duration.ofDays(2)));
+
+		uploads.expireAbandonedUploads();
+
+		assertThatThrownBy(() -> uploads.get(stale.getUploadId())).isInstanceOf(UploadNotFoundException.class);
+		assertThat(uploads.get(active.getUploadId()).getStatus()).isEqualTo(UploadStatus.OPEN);
+		try (var files = Files.list(uploadDir)) {
+			assertThat(files).extracting(path -> path.getFileName().toString()).containsExactly(active.getFileName() + ".part");
+		}
+	}
+
+	private UploadSession open() {
+		return uploads.init(UploadInitRequestDto.builder().title("Clip").fileName("clip.mp4").contentType("video/mp4")
+				.totalSize(content.length).build());
+	}
+
+	private void put(UploadSession session, int part) {
+		int offset = part * PART_SIZE;
+		int length = Math.min(PART_SIZE, content.length - offset);
+		uploads.writePart(session.getUploadId(), part, offset, body(offset, length), length);
+	}
+
+	private ByteArrayInputStream body(int offset, int length) {
+		return new ByteArrayInputStream(content, offset, length);
+	}
+}
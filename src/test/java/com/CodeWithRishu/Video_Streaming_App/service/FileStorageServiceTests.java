@@ -0,0 +1,94 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadAbortedException;
+import com.CodeWithRishu.Video_Streaming_App.exception.UploadTooLargeException;
+import com.CodeWithRishu.Video_Streaming_App.metrics.VideoMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileStorageServiceTests {
+
+	@TempDir
+	Path uploadDir;
+
+	@Test
+	void storeStreamWritesFileAndComputesChecksum() throws Exception {
+		byte[] content = new byte[3 * 1024 * 1024 + 17];
+		new Random(42).nextBytes(content);
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), DataSize.ofMegabytes(10), new VideoMetrics(new SimpleMeterRegistry(), 500));
+
+		FileStorageService.StoredFile stored = storage.storeStream(new ByteArrayInputStream(content), "../clip.mp4");
+
+		assertThat(stored.fileName()).endsWith("_clip.mp4");
+		assertThat(stored.size()).isEqualTo(content.length);
+		assertThat(stored.sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		assertThat(Files.readAllBytes(uploadDir.resolve(stored.fileName()))).isEqualTo(content);
+	}
+
+	@Test
+	void storeStreamRejectsOversizedBodyAndCleansUp() throws Exception {
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), DataSize.ofKilobytes(1), new VideoMetrics(new SimpleMeterRegistry(), 500));
+
+		assertThatThrownBy(() -> storage.storeStream(new ByteArrayInputStream(new byte[4096]), "big.mp4"))
+				.isInstanceOf(UploadTooLargeException.class);
+		try (var files = Files.list(uploadDir)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void aClientDroppingMidPartIsReportedAsAnAbort() {
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), DataSize.ofMegabytes(1), new VideoMetrics(new SimpleMeterRegistry(), 500));
+		String fileName = storage.allocate("clip.mp4", 8192);
+		InputStream dropped = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Connection reset by peer");
+			}
+		};
+
+		assertThatThrownBy(() -> storage.writeAt(fileName, 0, dropped, 4096))
+				.isInstanceOf(UploadAbortedException.class);
+		assertThatThrownBy(() -> storage.writeAt("missing.mp4", 0, new ByteArrayInputStream(new byte[16]), 16))
+				.isNotInstanceOf(UploadAbortedException.class);
+	}
+
+	@Test
+	void partsWrittenOutOfOrderAssembleIntoTheOriginalFile() throws Exception {
+		byte[] content = new byte[10_000];
+		new Random(7).nextBytes(content);
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), DataSize.ofMegabytes(1), new VideoMetrics(new SimpleMeterRegistry(), 500));
+		String fileName = storage.allocate("clip.mp4", content.length);
+
+		int partSize = 4096;
+		for (int part = 2; part >= 0; part--) {
+			int offset = part * partSize;
+			int length = Math.min(partSize, content.length - offset);
+			long written = storage.writeAt(fileName, offset, new ByteArrayInputStream(content, offset, length), length);
+			assertThat(written).isEqualTo(length);
+		}
+		FileStorageService.StoredFile stored = storage.finish(fileName);
+
+		assertThat(stored.size()).isEqualTo(content.length);
+		assertThat(stored.sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		assertThat(Files.readAllBytes(uploadDir.resolve(fileName))).isEqualTo(content);
+
+		// A completion retried after being rejected reads the already finalized file
+		assertThat(storage.finish(fileName)).isEqualTo(stored);
+	}
+
+}
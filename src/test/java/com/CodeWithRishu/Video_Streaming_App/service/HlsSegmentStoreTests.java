@@ -0,0 +1,181 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.cache.HlsSegmentCache;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeJob;
+import com.CodeWithRishu.Video_Streaming_App.entity.TranscodeStatus;
+import com.CodeWithRishu.Video_Streaming_App.repository.TranscodeJobRepository;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HlsSegmentStoreTests {
+
+	@TempDir
+	Path hlsDir;
+
+	private VideoRepository videoRepository;
+	private TranscodeJobRepository transcodeJobRepository;
+	private HlsSegmentCache cache;
+	private HlsSegmentStore store;
+
+	@BeforeEach
+	void setUp() {
+		videoRepository = mock(VideoRepository.class);
+		transcodeJobRepository = mock(TranscodeJobRepository.class);
+		cache = new HlsSegmentCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8));
+		when(transcodeJobRepository.findFirstByVideoIdOrderByCreatedAtDesc(anyString())).thenReturn(Optional.empty());
+		store = new HlsSegmentStore(videoRepository, transcodeJobRepository, cache, hlsDir.toString(),
+				Duration.ofHours(1), Duration.ofHours(1));
+	}
+
+	@Test
+	void servesOnlyFilesThePlaylistsList() throws Exception {
+		output("k1", true, 2);
+		Files.writeString(hlsDir.resolve("k1/720p/notes.txt"), "not listed");
+		Files.writeString(hlsDir.resolve("secret.txt"), "outside");
+		store.buildIndex();
+
+		assertThat(store.resolve("k1", "master.m3u8")).contains(hlsDir.resolve("k1/master.m3u8").toAbsolutePath());
+		assertThat(store.resolve("k1", "720p/index.m3u8")).isPresent();
+		assertThat(store.resolve("k1", "720p/segment_001.ts")).isPresent();
+		assertThat(store.resolve("k1", "720p/notes.txt")).isEmpty();
+		assertThat(store.resolve("k1", "../secret.txt")).isEmpty();
+		assertThat(store.resolve("k1", "720p/../../secret.txt")).isEmpty();
+		assertThat(store.resolve("..", "secret.txt")).isEmpty();
+		assertThat(store.stats().getIndexedFiles()).isEqualTo(4);
+	}
+
+	@Test
+	void playlistEntriesOutsideTheOutputAreNotIndexed() throws Exception {
+		output("k1", true, 1);
+		Files.writeString(hlsDir.resolve("k1/720p/index.m3u8"),
+				"#EXTM3U\n#EXTINF:6.0,\n../../secret.ts\n#EXTINF:6.0,\nsegment_000.ts\n#EXT-X-ENDLIST\n");
+		Files.writeString(hlsDir.resolve("secret.ts"), "outside");
+
+		assertThat(store.resolve("k1", "720p/segment_000.ts")).isPresent();
+		assertThat(store.manifest("k1").orElseThrow().files()).doesNotContainKey("secret.ts");
+	}
+
+	@Test
+	void unfinishedOutputIsRescannedOnAMissWhileFinishedOutputIsNot() throws Exception {
+		store = new HlsSegmentStore(videoRepository, transcodeJobRepository, cache, hlsDir.toString(),
+				Duration.ZERO, Duration.ofHours(1));
+		output("live", false, 1);
+		output("done", true, 1);
+		store.buildIndex();
+
+		appendSegment("live", 1, false);
+		appendSegment("done", 1, true);
+
+		assertThat(store.resolve("live", "720p/segment_001.ts")).isPresent();
+		assertThat(store.resolve("done", "720p/segment_001.ts")).isEmpty();
+		assertThat(store.refresh("done").files()).containsKey("720p/segment_001.ts");
+	}
+
+	@Test
+	void flagsSegmentsThePlaylistsReferenceButTheDiskLacks() throws Exception {
+		output("k1", true, 2);
+		Files.delete(hlsDir.resolve("k1/720p/segment_001.ts"));
+		store.buildIndex();
+
+		assertThat(store.manifest("k1").orElseThrow().complete()).isFalse();
+		assertThat(store.stats().getBroken()).containsEntry("k1", List.of("720p/segment_001.ts"));
+	}
+
+	@Test
+	void reconcilerRemovesOrphansAndAbandonedOutputOnly() throws Exception {
+		output("orphan", true, 1);
+		output("abandoned", false, 1);
+		output("running", false, 1);
+		output("published", true, 1);
+		output("fresh-orphan", true, 1);
+		Stream.of("orphan", "abandoned", "running", "published").forEach(this::age);
+		when(videoRepository.findVideoIdsByHlsKey(anyString())).thenReturn(List.of());
+		when(videoRepository.findVideoIdsByHlsKey("abandoned")).thenReturn(List.of("v1"));
+		when(videoRepository.findVideoIdsByHlsKey("running")).thenReturn(List.of("v2"));
+		when(videoRepository.findVideoIdsByHlsKey("published")).thenReturn(List.of("v3"));
+		when(transcodeJobRepository.findFirstByVideoIdOrderByCreatedAtDesc("v2"))
+				.thenReturn(Optional.of(TranscodeJob.builder().videoId("v2").status(TranscodeStatus.RUNNING).build()));
+		store.buildIndex();
+
+		store.reconcile();
+
+		assertThat(hlsDir.resolve("orphan")).doesNotExist();
+		assertThat(hlsDir.resolve("abandoned")).doesNotExist();
+		assertThat(hlsDir.resolve("running")).exists();
+		assertThat(hlsDir.resolve("published")).exists();
+		assertThat(hlsDir.resolve("fresh-orphan")).exists();
+		assertThat(store.manifest("orphan")).isEmpty();
+		assertThat(store.stats().getRemovedOutputs()).isEqualTo(2);
+		assertThat(store.stats().getLastReconciledAt()).isNotNull();
+	}
+
+	@Test
+	void outputDroppedFromTheIndexIsDroppedFromTheCache() throws Exception {
+		output("orphan", true, 1);
+		output("unpublished", true, 1);
+		age("orphan");
+		when(videoRepository.findVideoIdsByHlsKey(anyString())).thenReturn(List.of("v1"));
+		when(videoRepository.findVideoIdsByHlsKey("orphan")).thenReturn(List.of());
+		store.buildIndex();
+		cache.load("orphan/720p/segment_000.ts", hlsDir.resolve("orphan/720p/segment_000.ts"));
+		cache.load("unpublished/720p/segment_000.ts", hlsDir.resolve("unpublished/720p/segment_000.ts"));
+
+		store.reconcile();
+		store.remove("unpublished");
+
+		assertThat(cache.contains("orphan/720p/segment_000.ts")).isFalse();
+		assertThat(cache.contains("unpublished/720p/segment_000.ts")).isFalse();
+	}
+
+	private void output(String hlsKey, boolean finished, int segments) throws Exception {
+		Path rendition = Files.createDirectories(hlsDir.resolve(hlsKey).resolve("720p"));
+		Files.writeString(hlsDir.resolve(hlsKey).resolve("master.m3u8"),
+				"#EXTM3U\n#EXT-X-STREAM-INF:BANDWIDTH=2800000\n720p/index.m3u8\n");
+		StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-TARGETDURATION:6\n");
+		for (int i = 0; i < segments; i++) {
+			Files.writeString(rendition.resolve(segment(i)), "segment " + i);
+			playlist.append("#EXTINF:6.000000,\n").append(segment(i)).append('\n');
+		}
+		Files.writeString(rendition.resolve("index.m3u8"), playlist.append(finished ? "#EXT-X-ENDLIST\n" : ""));
+	}
+
+	private void appendSegment(String hlsKey, int index, boolean finished) throws Exception {
+		Path rendition = hlsDir.resolve(hlsKey).resolve("720p");
+		Files.writeString(rendition.resolve(segment(index)), "segment " + index);
+		String playlist = Files.readString(rendition.resolve("index.m3u8")).replace("#EXT-X-ENDLIST\n", "");
+		Files.writeString(rendition.resolve("index.m3u8"), playlist + "#EXTINF:6.000000,\n" + segment(index) + "\n"
+				+ (finished ? "#EXT-X-ENDLIST\n" : ""));
+	}
+
+	private void age(String hlsKey) {
+		FileTime old = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+		try (Stream<Path> paths = Files.walk(hlsDir.resolve(hlsKey))) {
+			for (Path path : paths.toList()) {
+				Files.setLastModifiedTime(path, old);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String segment(int index) {
+		return String.format("segment_%03d.ts", index);
+	}
+}
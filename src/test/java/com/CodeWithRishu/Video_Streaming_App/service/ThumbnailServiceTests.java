@@ -0,0 +1,55 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailServiceTests {
+
+	@TempDir
+	Path uploadDir;
+
+	@Test
+	void requestedWidthsSnapUpToConfiguredVariants() {
+		ThumbnailService service = new ThumbnailService(uploadDir.toString(), new int[]{640, 160, 320}, 0.85f, "ffmpeg");
+
+		assertThat(service.resolveWidth(1)).isEqualTo(160);
+		assertThat(service.resolveWidth(161)).isEqualTo(320);
+		assertThat(service.resolveWidth(5000)).isEqualTo(640);
+	}
+
+	@Test
+	void variantsAreScaledJpegsThatKeepAspectRatioAndNeverUpscale() throws Exception {
+		ThumbnailService service = new ThumbnailService(uploadDir.toString(), new int[]{160, 320, 640}, 0.85f, "ffmpeg");
+		ImageIO.write(new BufferedImage(480, 270, BufferedImage.TYPE_INT_ARGB), "png", uploadDir.resolve("abc_thumb.png").toFile());
+		Video video = Video.builder().videoId("v1").thumbnailUrl("abc_thumb.png").build();
+
+		Path small = service.variant(video, 160);
+		Path large = service.variant(video, 640);
+
+		BufferedImage smallImage = ImageIO.read(small.toFile());
+		assertThat(small.getFileName()).hasToString("160.jpg");
+		assertThat(smallImage.getWidth()).isEqualTo(160);
+		assertThat(smallImage.getHeight()).isEqualTo(90);
+		assertThat(ImageIO.read(large.toFile()).getWidth()).isEqualTo(480);
+		assertThat(service.variant(video, 100)).isEqualTo(small);
+	}
+
+	@Test
+	void videosWithoutThumbnailOrPosterHaveNoVariants() {
+		ThumbnailService service = new ThumbnailService(uploadDir.toString(), new int[]{160}, 0.85f, "ffmpeg");
+		Video video = Video.builder().videoId("v2").build();
+
+		assertThatThrownBy(() -> service.variant(video, 160)).isInstanceOf(FileNotFoundException.class);
+		assertThat(Files.exists(uploadDir.resolve("thumbnails").resolve("v2").resolve("160.jpg"))).isFalse();
+	}
+}
@@ -0,0 +1,61 @@
+package com.CodeWithRishu.Video_Streaming_App.service;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.VideoBlob;
+import com.CodeWithRishu.Video_Streaming_App.repository.VideoBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class VideoBlobServiceTests {
+
+	private final VideoBlobRepository repository = mock(VideoBlobRepository.class);
+	private final VideoBlobService service = new VideoBlobService(repository);
+	private final FileStorageService.StoredFile stored = new FileStorageService.StoredFile("new_movie.mp4", 42, "aa11");
+
+	@Test
+	void newContentCreatesABlobOwnedByTheUploader() {
+		when(repository.acquire("aa11")).thenReturn(0);
+
+		VideoBlobService.BlobRef ref = service.acquire(stored, "video-1");
+
+		assertThat(ref).isEqualTo(new VideoBlobService.BlobRef("new_movie.mp4", "video-1", false));
+		verify(repository).saveAndFlush(argThat(blob -> blob.getRefCount() == 1 && blob.isNew()));
+	}
+
+	@Test
+	void knownContentSharesTheExistingFileAndOutput() {
+		when(repository.acquire("aa11")).thenReturn(1);
+		when(repository.findById("aa11")).thenReturn(Optional.of(
+				VideoBlob.builder().sha256("aa11").filePath("old_movie.mp4").hlsKey("video-0").refCount(2).build()));
+
+		VideoBlobService.BlobRef ref = service.acquire(stored, "video-1");
+
+		assertThat(ref).isEqualTo(new VideoBlobService.BlobRef("old_movie.mp4", "video-0", true));
+		verify(repository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void losingAnInsertRaceFallsBackToTheWinnersBlob() {
+		when(repository.acquire("aa11")).thenReturn(0, 1);
+		when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+		when(repository.findById("aa11")).thenReturn(Optional.of(
+				VideoBlob.builder().sha256("aa11").filePath("winner.mp4").hlsKey("video-9").refCount(2).build()));
+
+		assertThat(service.acquire(stored, "video-1").hlsKey()).isEqualTo("video-9");
+	}
+
+	@Test
+	void onlyTheLastReleaseRemovesTheContent() {
+		when(repository.release("aa11")).thenReturn(1);
+		when(repository.deleteIfUnreferenced("aa11")).thenReturn(0, 1);
+
+		assertThat(service.release("aa11")).isFalse();
+		assertThat(service.release("aa11")).isTrue();
+		assertThat(service.release(null)).isTrue();
+	}
+}
@@ -0,0 +1,168 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import com.CodeWithRishu.Video_Streaming_App.exception.TranscodeCancelledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisabledOnOs(OS.WINDOWS)
+class FfmpegTranscoderTests {
+
+	@TempDir
+	Path dir;
+
+	private Path fakeFfmpeg;
+
+	@BeforeEach
+	void installFakeFfmpeg() throws IOException {
+		fakeFfmpeg = dir.resolve("ffmpeg");
+		try (InputStream script = getClass().getResourceAsStream("/fake-ffmpeg.sh")) {
+			Files.copy(script, fakeFfmpeg);
+		}
+		assertThat(fakeFfmpeg.toFile().setExecutable(true)).isTrue();
+	}
+
+	@Test
+	void countsFinishedInvocationsTowardsTheSessionsProgress() throws Exception {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(10));
+
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			session.setMediaSeconds(40);
+			session.run(List.of("--seconds", "10"), 10);
+			session.run(List.of("--seconds", "10"), 0);
+
+			TranscodeProgress progress = transcoder.progress("v1").orElseThrow();
+			assertThat(progress.percent()).isEqualTo(25.0);
+			assertThat(progress.fps()).isZero();
+		}
+		assertThat(transcoder.progress("v1")).isEmpty();
+	}
+
+	@Test
+	void failureCarriesTheTailOfTheErrorOutput() {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(10));
+
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			assertThatThrownBy(() -> session.run(List.of("--fail"), 10))
+					.isInstanceOf(IOException.class)
+					.hasMessageContaining("exited with code 1")
+					.hasMessageContaining("Invalid data found when processing input");
+		}
+	}
+
+	@Test
+	void killsInvocationsThatExceedTheTimeout() {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofMillis(300));
+
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			assertThatThrownBy(() -> session.run(List.of("--hang"), 10))
+					.isInstanceOf(IOException.class)
+					.hasMessageContaining("timed out");
+		}
+	}
+
+	@Test
+	void cancelStopsTheRunningInvocationAndReportsLiveProgressBeforehand() throws Exception {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(30));
+
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			session.setMediaSeconds(20);
+			CompletableFuture<Void> run = CompletableFuture.runAsync(() -> {
+				try {
+					session.run(List.of("--hang", "--seconds", "20"), 20);
+				} catch (IOException | InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (transcoder.progress("v1").orElseThrow().fps() == 0 && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			TranscodeProgress progress = transcoder.progress("v1").orElseThrow();
+			assertThat(progress.percent()).isEqualTo(50.0);
+			assertThat(progress.fps()).isEqualTo(48.0);
+			assertThat(progress.speed()).isEqualTo(2.0);
+
+			assertThat(transcoder.cancel("v1")).isTrue();
+			assertThatThrownBy(() -> run.get(10, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(TranscodeCancelledException.class);
+			assertThatThrownBy(() -> session.run(List.of(), 0)).isInstanceOf(TranscodeCancelledException.class);
+		}
+		assertThat(transcoder.cancel("v1")).isFalse();
+	}
+
+	@Test
+	void execReturnsTheOutputOfOtherTools() throws Exception {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(10));
+
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			List<String> output = session.exec(List.of(fakeFfmpeg.toString(), "--seconds", "4"), Duration.ofSeconds(10));
+			assertThat(output).contains("out_time_us=2000000", "progress=end");
+
+			assertThatThrownBy(() -> session.exec(List.of(fakeFfmpeg.toString(), "--hang"), Duration.ofMillis(300)))
+					.isInstanceOf(IOException.class)
+					.hasMessageContaining("timed out");
+		}
+	}
+
+	@Test
+	void cancelBeforeTheSessionOpensStopsItsFirstProcess() {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(10));
+
+		assertThat(transcoder.cancel("v1")).isFalse();
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			assertThatThrownBy(() -> session.exec(List.of(fakeFfmpeg.toString()), Duration.ofSeconds(10)))
+					.isInstanceOf(TranscodeCancelledException.class);
+		}
+		// Applied once: the next session runs normally
+		try (Transcoder.Session session = transcoder.open("v1")) {
+			assertThat(transcoder.progress("v1")).isPresent();
+		}
+	}
+
+	@Test
+	void rejectsASecondSessionForTheSameKey() {
+		FfmpegTranscoder transcoder = transcoder(Duration.ofSeconds(10));
+
+		try (Transcoder.Session ignored = transcoder.open("v1")) {
+			assertThatThrownBy(() -> transcoder.open("v1")).isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	void progressLinesKeepTheLastKnownValues() {
+		FfmpegTranscoder.Invocation invocation = new FfmpegTranscoder.Invocation(10);
+
+		assertThat(FfmpegTranscoder.parseProgressLine("out_time_us=2500000", invocation)).isFalse();
+		FfmpegTranscoder.parseProgressLine("fps=30.5", invocation);
+		FfmpegTranscoder.parseProgressLine("speed=1.25x", invocation);
+		assertThat(FfmpegTranscoder.parseProgressLine("progress=continue", invocation)).isTrue();
+		FfmpegTranscoder.parseProgressLine("out_time_us=N/A", invocation);
+		FfmpegTranscoder.parseProgressLine("progress=continue", invocation);
+
+		assertThat(invocation.encodedSeconds).isEqualTo(2.5);
+		assertThat(invocation.fps).isEqualTo(30.5);
+		assertThat(invocation.speed).isEqualTo(1.25);
+	}
+
+	private FfmpegTranscoder transcoder(Duration timeout) {
+		return new FfmpegTranscoder(fakeFfmpeg.toString(), timeout, 5);
+	}
+}
@@ -0,0 +1,32 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HlsPlaylistsTests {
+
+	private static final List<Rendition> RENDITIONS = List.of(
+			new Rendition("720p", 1280, 720, 2800, 128),
+			new Rendition("480p", 854, 480, 1400, 128));
+
+	@Test
+	void masterPlaylistBandwidthIsThePeakRateWithAudioOnlyWhenPresent() {
+		assertThat(HlsPlaylists.masterPlaylist(RENDITIONS, true))
+				.isEqualTo("#EXTM3U\n#EXT-X-VERSION:3\n"
+						+ "#EXT-X-STREAM-INF:BANDWIDTH=3124000,RESOLUTION=1280x720\n720p/index.m3u8\n"
+						+ "#EXT-X-STREAM-INF:BANDWIDTH=1626000,RESOLUTION=854x480\n480p/index.m3u8\n");
+		assertThat(HlsPlaylists.masterPlaylist(RENDITIONS, false))
+				.contains("BANDWIDTH=2996000,RESOLUTION=1280x720", "BANDWIDTH=1498000,RESOLUTION=854x480");
+	}
+
+	@Test
+	void versionsOnlySegmentUris() {
+		String playlist = "#EXTM3U\r\n#EXT-X-TARGETDURATION:7\r\n#EXTINF:6.000000,\r\nsegment_000.ts\r\n#EXT-X-ENDLIST\r\n";
+
+		assertThat(HlsPlaylists.versionSegmentUris(playlist, "abc"))
+				.isEqualTo("#EXTM3U\n#EXT-X-TARGETDURATION:7\n#EXTINF:6.000000,\nsegment_000.ts?v=abc\n#EXT-X-ENDLIST\n");
+	}
+}
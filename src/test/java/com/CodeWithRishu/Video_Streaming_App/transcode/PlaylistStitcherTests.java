@@ -0,0 +1,102 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlaylistStitcherTests {
+
+	private static final List<Rendition> RENDITIONS = List.of(new Rendition("480p", 854, 480, 1400, 128));
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void parsesWhatItRenders() {
+		List<HlsPlaylists.Segment> segments = List.of(
+				new HlsPlaylists.Segment("segment_000.ts", 6.006),
+				new HlsPlaylists.Segment("segment_001.ts", 2.5));
+
+		String playlist = HlsPlaylists.mediaPlaylist(segments, 6, true);
+
+		assertThat(playlist).contains("#EXT-X-MEDIA-SEQUENCE:0", "#EXT-X-PLAYLIST-TYPE:VOD", "#EXTINF:6.006000,")
+				.endsWith("#EXT-X-ENDLIST\n");
+		assertThat(HlsPlaylists.parseMediaPlaylist(playlist)).isEqualTo(segments);
+		assertThat(HlsPlaylists.mediaPlaylist(segments, 6, false))
+				.contains("#EXT-X-PLAYLIST-TYPE:EVENT").doesNotContain("#EXT-X-ENDLIST");
+	}
+
+	@Test
+	void publishesChunksInOrderWithContinuousNumbering() throws IOException {
+		Path output = dir.resolve("out");
+		PlaylistStitcher stitcher = new PlaylistStitcher(output, RENDITIONS, 6);
+		Path chunk0 = chunk("c0", 6.0, 6.0);
+		Path chunk1 = chunk("c1", 6.0, 7.4);
+		Path chunk2 = chunk("c2", 3.0);
+
+		assertThat(stitcher.chunkDone(1, chunk1)).isZero();
+		assertThat(output.resolve("480p/index.m3u8")).doesNotExist();
+
+		assertThat(stitcher.chunkDone(0, chunk0)).isEqualTo(2);
+		String partialPlaylist = Files.readString(output.resolve("480p/index.m3u8"));
+		assertThat(partialPlaylist).contains("#EXT-X-TARGETDURATION:" + PlaylistStitcher.targetDuration(6));
+		List<HlsPlaylists.Segment> partial = HlsPlaylists.parseMediaPlaylist(partialPlaylist);
+		assertThat(partial).extracting(HlsPlaylists.Segment::uri)
+				.containsExactly("segment_000.ts", "segment_001.ts", "segment_002.ts", "segment_003.ts");
+		assertThat(Files.readString(output.resolve("480p/segment_002.ts"))).isEqualTo("c1/segment_000.ts");
+
+		assertThat(stitcher.chunkDone(2, chunk2)).isEqualTo(3);
+		stitcher.complete(3);
+
+		String complete = Files.readString(output.resolve("480p/index.m3u8"));
+		assertThat(complete).contains("#EXT-X-TARGETDURATION:" + PlaylistStitcher.targetDuration(6), "#EXT-X-PLAYLIST-TYPE:VOD").endsWith("#EXT-X-ENDLIST\n");
+		assertThat(HlsPlaylists.parseMediaPlaylist(complete)).extracting(HlsPlaylists.Segment::duration)
+				.containsExactly(6.0, 6.0, 6.0, 7.4, 3.0);
+	}
+
+	@Test
+	void targetDurationIsFixedBeforeTheFirstPublish() throws IOException {
+		Path output = dir.resolve("out");
+		PlaylistStitcher stitcher = new PlaylistStitcher(output, RENDITIONS, 6);
+
+		stitcher.chunkDone(0, chunk("c0", 4.0));
+		String first = Files.readString(output.resolve("480p/index.m3u8"));
+		// An overlong segment is flagged, never allowed to move the target between publishes
+		stitcher.chunkDone(1, chunk("c1", 9.0));
+		stitcher.complete(2);
+		String last = Files.readString(output.resolve("480p/index.m3u8"));
+
+		assertThat(PlaylistStitcher.targetDuration(6)).isEqualTo(7);
+		assertThat(first).contains("#EXT-X-TARGETDURATION:7");
+		assertThat(last).contains("#EXT-X-TARGETDURATION:7");
+	}
+
+	@Test
+	void refusesToCompleteWithAGap() throws IOException {
+		PlaylistStitcher stitcher = new PlaylistStitcher(dir.resolve("out"), RENDITIONS, 6);
+		stitcher.chunkDone(1, chunk("c1", 6.0));
+
+		assertThatThrownBy(() -> stitcher.complete(2)).isInstanceOf(IOException.class);
+	}
+
+	// Writes a chunk's HLS output whose segment files contain their own relative path
+	private Path chunk(String name, double... durations) throws IOException {
+		Path renditionDir = Files.createDirectories(dir.resolve(name).resolve("480p"));
+		List<HlsPlaylists.Segment> segments = new ArrayList<>();
+		for (int i = 0; i < durations.length; i++) {
+			String file = String.format("segment_%03d.ts", i);
+			Files.writeString(renditionDir.resolve(file), name + "/" + file);
+			segments.add(new HlsPlaylists.Segment(file, durations[i]));
+		}
+		Files.writeString(renditionDir.resolve(HlsPlaylists.MEDIA_PLAYLIST), HlsPlaylists.mediaPlaylist(segments, 6, true));
+		return dir.resolve(name);
+	}
+}
@@ -0,0 +1,54 @@
+package com.CodeWithRishu.Video_Streaming_App.transcode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RenditionLadderTests {
+
+	private final RenditionLadder ladder = new RenditionLadder("480p:854x480:1400:128, 1080p:1920x1080:5000:192,720p:1280x720:2800:128");
+
+	@Test
+	void sortsRungsFromTallestToShortest() {
+		assertThat(ladder.getRenditions()).extracting(Rendition::name).containsExactly("1080p", "720p", "480p");
+	}
+
+	@Test
+	void rejectsMalformedSpecs() {
+		assertThatThrownBy(() -> new RenditionLadder("720p:1280:2800:128")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new RenditionLadder("720p:1280x720:2800")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new RenditionLadder("../720p:1280x720:2800:128")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new RenditionLadder("720p:1280x720:fast:128")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new RenditionLadder(" , ")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void neverUpscalesALandscapeSource() {
+		List<Rendition> selected = ladder.forSource(1280, 720);
+
+		assertThat(selected).extracting(Rendition::name).containsExactly("720p", "480p");
+		assertThat(selected).extracting(Rendition::width).containsExactly(1280, 854);
+	}
+
+	@Test
+	void keepsThePortraitAspectRatioWithEvenWidths() {
+		List<Rendition> selected = ladder.forSource(1080, 1920);
+
+		assertThat(selected).extracting(Rendition::name).containsExactly("1080p", "720p", "480p");
+		assertThat(selected).extracting(Rendition::height).containsExactly(1080, 720, 480);
+		assertThat(selected).extracting(Rendition::width).containsExactly(608, 406, 270);
+	}
+
+	@Test
+	void aSourceBelowTheLowestRungStillGetsThatRung() {
+		assertThat(ladder.forSource(320, 180)).extracting(Rendition::name).containsExactly("480p");
+	}
+
+	@Test
+	void anUnknownSourceSizeGetsTheWholeLadderUnscaled() {
+		assertThat(ladder.forSource(0, 0)).isEqualTo(ladder.getRenditions());
+	}
+}
@@ -0,0 +1,66 @@
+package com.CodeWithRishu.Video_Streaming_App.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteRangesTests {
+
+	private final Resource resource = new ByteArrayResource(new byte[1000]);
+
+	@Test
+	void openEndedRangesAreChunkedButExplicitRangesAreHonoured() {
+		List<ResourceRegion> regions = ByteRanges.toRegions(resource, HttpRange.parseRanges("bytes=100-,0-499"), 1000, 200, 1000);
+
+		assertThat(regions).extracting(ResourceRegion::getPosition).containsExactly(100L, 0L);
+		assertThat(regions).extracting(ResourceRegion::getCount).containsExactly(200L, 500L);
+	}
+
+	@Test
+	void onlyBytesNDashIsOpenEnded() {
+		assertThat(ByteRanges.isOpenEnded(HttpRange.parseRanges("bytes=100-").get(0))).isTrue();
+		assertThat(ByteRanges.isOpenEnded(HttpRange.parseRanges("bytes=0-").get(0))).isTrue();
+		assertThat(ByteRanges.isOpenEnded(HttpRange.parseRanges("bytes=100-999").get(0))).isFalse();
+		assertThat(ByteRanges.isOpenEnded(HttpRange.parseRanges("bytes=-300").get(0))).isFalse();
+
+		List<ResourceRegion> regions = ByteRanges.toRegions(resource, HttpRange.parseRanges("bytes=-300"), 1000, 200, 1000);
+		assertThat(regions).extracting(ResourceRegion::getPosition).containsExactly(700L);
+		assertThat(regions).extracting(ResourceRegion::getCount).containsExactly(300L);
+	}
+
+	@Test
+	void unsatisfiableRangeIsRejected() {
+		assertThatThrownBy(() -> ByteRanges.toRegions(resource, HttpRange.parseRanges("bytes=1000-"), 1000, 200, 1000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void ifRangeMatchesOnlyTheCurrentValidator() {
+		long lastModified = Instant.parse("2025-01-01T10:00:00Z").toEpochMilli();
+		String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+
+		assertThat(ByteRanges.ifRangeMatches(ifRange(date), null, lastModified)).isTrue();
+		assertThat(ByteRanges.ifRangeMatches(ifRange(date), null, lastModified + 5000)).isFalse();
+		assertThat(ByteRanges.ifRangeMatches(ifRange("\"v1\""), "\"v1\"", lastModified)).isTrue();
+		assertThat(ByteRanges.ifRangeMatches(ifRange("W/\"v1\""), "\"v1\"", lastModified)).isFalse();
+		assertThat(ByteRanges.ifRangeMatches(new HttpHeaders(), null, lastModified)).isTrue();
+	}
+
+	private static HttpHeaders ifRange(String value) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.IF_RANGE, value);
+		return headers;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.CodeWithRishu.Video_Streaming_App.utils;
+
+import com.CodeWithRishu.Video_Streaming_App.entity.Video;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheValidatorsTests {
+
+	@Test
+	void hlsEtagsAreStrongAndDistinctPerFileAndVersion() {
+		Video video = Video.builder().videoId("v1").hlsVersion("abc").hlsPublishedAt(Instant.ofEpochSecond(1000)).build();
+
+		String master = CacheValidators.hlsEtag(video, "master.m3u8");
+		String segment = CacheValidators.hlsEtag(video, "720p/segment_000.ts");
+		video.setHlsVersion("abd");
+
+		assertThat(master).startsWith("\"abc-").endsWith("\"").isNotEqualTo(segment);
+		assertThat(CacheValidators.hlsEtag(video, "master.m3u8")).isNotEqualTo(master);
+		assertThat(CacheValidators.hlsLastModified(video)).isEqualTo(1_000_000L);
+	}
+
+	@Test
+	void unpublishedVideosHaveNoValidators() {
+		Video video = Video.builder().videoId("v1").build();
+
+		assertThat(CacheValidators.hlsEtag(video, "master.m3u8")).isNull();
+		assertThat(CacheValidators.hlsLastModified(video)).isEqualTo(-1L);
+		assertThat(CacheValidators.sourceEtag(video)).isNull();
+	}
+
+	@Test
+	void thumbnailVariantsHaveTheirOwnEtags() {
+		Video video = Video.builder().videoId("v1").thumbnailUrl("uuid_thumb.png").build();
+		Video posterOnly = Video.builder().videoId("v1").build();
+
+		assertThat(CacheValidators.thumbnailEtag(video)).isNotEqualTo(CacheValidators.thumbnailEtag(video, 320));
+		assertThat(CacheValidators.thumbnailEtag(video, 320)).isNotEqualTo(CacheValidators.thumbnailEtag(video, 640));
+		assertThat(CacheValidators.thumbnailEtag(posterOnly, 320)).isNotEqualTo(CacheValidators.thumbnailEtag(video, 320));
+	}
+}
@@ -0,0 +1,30 @@
+#!/bin/sh
+# Stands in for ffmpeg in tests. Writes -progress style reports to stdout and ignores the real
+# arguments, except for: --fail (exit 1 with an error), --hang (never finish) and
+# --seconds N (report N seconds encoded, default 10).
+seconds=10
+mode=ok
+while [ $# -gt 0 ]; do
+  case "$1" in
+    --fail) mode=fail ;;
+    --hang) mode=hang ;;
+    --seconds) shift; seconds=$1 ;;
+  esac
+  shift
+done
+
+if [ "$mode" = fail ]; then
+  echo "warming up" >&2
+  echo "input.mp4: Invalid data found when processing input" >&2
+  exit 1
+fi
+
+half=$((seconds * 500000))
+printf 'frame=120\nfps=48.0\nout_time_us=%s\nout_time_ms=%s\nspeed=2.0x\nprogress=continue\n' "$half" "$half"
+
+if [ "$mode" = hang ]; then
+  sleep 30
+fi
+
+full=$((seconds * 1000000))
+printf 'frame=240\nfps=N/A\nout_time_us=%s\nspeed=N/A\nprogress=end\n' "$full"